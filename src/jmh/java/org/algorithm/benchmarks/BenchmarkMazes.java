@@ -0,0 +1,22 @@
+package org.algorithm.benchmarks;
+
+import org.algorithm.maze.Maze;
+import org.algorithm.maze.MazeGenerator;
+import org.algorithm.maze.impl.dfs_algorithm.DfsAlgorithm;
+
+import java.util.Random;
+
+// Seeded multiplayer style mazes, identical from one run to the next
+final class BenchmarkMazes {
+    private BenchmarkMazes() {
+    }
+
+    static Maze dfs(int size, double loopDensity, long seed) {
+        MazeGenerator maze = new DfsAlgorithm(size, size, null, new Random(seed));
+        maze.generateMaze();
+        if (loopDensity > 0) {
+            maze.createLoops(loopDensity);
+        }
+        return maze;
+    }
+}
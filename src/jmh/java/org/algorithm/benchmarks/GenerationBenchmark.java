@@ -0,0 +1,48 @@
+package org.algorithm.benchmarks;
+
+import org.algorithm.maze.Maze;
+import org.algorithm.maze.MazeGenerator;
+import org.algorithm.maze.impl.dfs_algorithm.DfsAlgorithm;
+import org.algorithm.maze.impl.prims_algorithm.PrimsAlgorithm;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Maze generation, construction (theme and junk words) included
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class GenerationBenchmark {
+    @Param({"15", "100", "500"})
+    int size;
+
+    @Param("42")
+    long seed;
+
+    private Random random;
+
+    // Same sequence of mazes in every iteration
+    @Setup(Level.Iteration)
+    public void setUp() {
+        random = new Random(seed);
+    }
+
+    @Benchmark
+    public Maze dfsGenerateMaze() {
+        MazeGenerator maze = new DfsAlgorithm(size, size, null, random);
+        maze.generateMaze();
+        return maze;
+    }
+
+    @Benchmark
+    public Maze primsGenerateMaze() {
+        MazeGenerator maze = new PrimsAlgorithm(size, size, null, random);
+        maze.setStartAndEnd();
+        maze.generateMaze();
+        return maze;
+    }
+}
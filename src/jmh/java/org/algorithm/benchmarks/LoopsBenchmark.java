@@ -0,0 +1,48 @@
+package org.algorithm.benchmarks;
+
+import org.algorithm.maze.Maze;
+import org.algorithm.maze.MazeGenerator;
+import org.algorithm.maze.impl.dfs_algorithm.DfsAlgorithm;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// MazeGenerator.createLoops on a freshly generated perfect maze
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class LoopsBenchmark {
+    @Param({"15", "100", "500"})
+    int size;
+
+    @Param({"0.1", "0.4"})
+    double loopDensity;
+
+    @Param("42")
+    long seed;
+
+    private Random random;
+    private MazeGenerator maze;
+
+    @Setup(Level.Iteration)
+    public void setUpIteration() {
+        random = new Random(seed);
+    }
+
+    // createLoops changes the maze, so each call gets a new one (not measured)
+    @Setup(Level.Invocation)
+    public void setUpInvocation() {
+        maze = new DfsAlgorithm(size, size, null, random);
+        maze.generateMaze();
+    }
+
+    @Benchmark
+    public Maze createLoops() {
+        maze.createLoops(loopDensity);
+        return maze;
+    }
+}
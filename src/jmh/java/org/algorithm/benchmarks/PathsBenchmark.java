@@ -0,0 +1,47 @@
+package org.algorithm.benchmarks;
+
+import org.algorithm.components.Node;
+import org.algorithm.maze.Maze;
+import org.algorithm.maze_solver.impl.BfsAlgorithm;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Path enumeration, capped at BfsAlgorithm.MAX_PATHS paths (the count explodes with loops)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class PathsBenchmark {
+    @Param({"10", "20", "40"})
+    int size;
+
+    @Param({"0.0", "0.1", "0.4"})
+    double loopDensity;
+
+    @Param("42")
+    long seed;
+
+    private Maze maze;
+    private BfsAlgorithm solver;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        maze = BenchmarkMazes.dfs(size, loopDensity, seed);
+        solver = new BfsAlgorithm();
+    }
+
+    @Benchmark
+    public List<List<Node>> getAllPaths() {
+        return solver.getAllPaths(maze.getGrid(), maze.getStart(), maze.getEnd());
+    }
+
+    // Lazy consumption, nothing but the current path is kept
+    @Benchmark
+    public long streamAllPaths() {
+        return solver.streamAllPaths(maze.getGrid(), maze.getStart(), maze.getEnd(), BfsAlgorithm.MAX_PATHS, maze.getGrid().size()).count();
+    }
+}
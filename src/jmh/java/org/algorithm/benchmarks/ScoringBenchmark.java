@@ -0,0 +1,82 @@
+package org.algorithm.benchmarks;
+
+import org.algorithm.components.MazeGrid;
+import org.algorithm.components.Node;
+import org.algorithm.maze.Maze;
+import org.algorithm.maze_solver.MazeSolver;
+import org.algorithm.maze_solver.PathScorer;
+import org.algorithm.maze_solver.impl.BfsAlgorithm;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Scoring a player path: a full rescan with updateScore against the incremental PathScorer.
+// Paths are random walks over the maze letters, so they contain words at roughly the game's rate.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class ScoringBenchmark {
+    @Param({"10", "100", "1000"})
+    int pathLength;
+
+    @Param("42")
+    long seed;
+
+    private Maze maze;
+    private MazeSolver solver;
+    private List<Node> path;
+    private PrintStream stdout;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        maze = BenchmarkMazes.dfs(100, 0.4, seed);
+        solver = new BfsAlgorithm();
+        MazeGrid grid = maze.getGrid();
+        Random random = new Random(seed);
+        path = new ArrayList<>(pathLength);
+        int row = maze.getStart().getRow();
+        int column = maze.getStart().getColumn();
+        path.add(grid.node(row, column));
+        while (path.size() < pathLength) {
+            int direction = random.nextInt(8);
+            if (grid.canMove(row, column, direction)) {
+                row += MazeGrid.D_ROW[direction];
+                column += MazeGrid.D_COL[direction];
+                path.add(grid.node(row, column));
+            }
+        }
+        // updateScore prints the words it finds to stdout, keep that out of the measurement
+        stdout = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        System.setOut(stdout);
+    }
+
+    @Benchmark
+    public int updateScore() {
+        return solver.updateScore(path, maze, new BitSet(), 0);
+    }
+
+    // Whole path pushed one cell at a time, as the game does move by move
+    @Benchmark
+    public int pathScorer() {
+        PathScorer scorer = new PathScorer(maze.getWordAutomaton());
+        int score = 0;
+        for (Node node : path) {
+            score += scorer.push(node.getValue());
+        }
+        return score;
+    }
+}
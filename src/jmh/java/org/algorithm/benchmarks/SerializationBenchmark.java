@@ -0,0 +1,43 @@
+package org.algorithm.benchmarks;
+
+import org.algorithm.components.MazeGrid;
+import org.algorithm.maze.Maze;
+import org.algorithm.maze.codec.MazeCodec;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+// Maze wire format, both directions
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class SerializationBenchmark {
+    @Param({"15", "100", "1000"})
+    int size;
+
+    @Param("42")
+    long seed;
+
+    private Maze maze;
+    private byte[] payload;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        maze = BenchmarkMazes.dfs(size, 0.4, seed);
+        payload = maze.serializeMaze();
+    }
+
+    @Benchmark
+    public byte[] serializeMaze() {
+        return maze.serializeMaze();
+    }
+
+    @Benchmark
+    public MazeGrid decode() throws IOException {
+        return MazeCodec.decode(payload);
+    }
+}
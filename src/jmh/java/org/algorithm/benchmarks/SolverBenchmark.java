@@ -0,0 +1,57 @@
+package org.algorithm.benchmarks;
+
+import org.algorithm.components.Node;
+import org.algorithm.maze.Maze;
+import org.algorithm.maze_solver.DistanceField;
+import org.algorithm.maze_solver.MazeSolver;
+import org.algorithm.maze_solver.SolverType;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Start to end shortest path with every solver, and the distance field that replaces them in game
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class SolverBenchmark {
+    @Param({"15", "100", "1000"})
+    int size;
+
+    @Param({"0.0", "0.1", "0.4"})
+    double loopDensity;
+
+    @Param({"DIJKSTRA", "BFS", "ASTAR", "BIDIRECTIONAL"})
+    SolverType solverType;
+
+    @Param("42")
+    long seed;
+
+    private Maze maze;
+    private MazeSolver solver;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        maze = BenchmarkMazes.dfs(size, loopDensity, seed);
+        solver = solverType.create();
+    }
+
+    @Benchmark
+    public List<Node> getShortestPath() {
+        return solver.getShortestPath(maze.getGrid(), maze.getStart(), maze.getEnd());
+    }
+
+    @Benchmark
+    public int getShortestPathLength() {
+        return solver.getShortestPathLength(maze.getGrid(), maze.getStart(), maze.getEnd());
+    }
+
+    // Does not depend on the solver; JMH still runs it once per solver value
+    @Benchmark
+    public DistanceField buildDistanceField() {
+        return DistanceField.build(maze.getGrid(), maze.getEnd());
+    }
+}
@@ -0,0 +1,506 @@
+package org.algorithm.loadtest;
+
+import org.algorithm.components.MazeGrid;
+import org.algorithm.components.Node;
+import org.algorithm.game_server.protocol.BinaryProtocol;
+import org.algorithm.game_server.protocol.TextProtocol;
+import org.algorithm.maze.Maze;
+import org.algorithm.maze.codec.MazeCodec;
+import org.algorithm.maze.codec.MazeDecoder;
+import org.algorithm.maze.codec.MazeDescriptor;
+import org.algorithm.maze.codec.MazeTiles;
+import org.algorithm.maze_solver.DistanceField;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// One simulated player speaking the server's text or binary protocol over a blocking socket.
+// Both players of a pair share a GamePair so the waiting player can time the mover's moves.
+// The game loop waits on events named after the binary frame types; in text mode a line, with its
+// value line, is one event. A binary PATH is a MOVE event of several cells.
+class GameClient implements Runnable {
+    // How long a blocking read waits before checking whether the game is over
+    private static final int POLL_MILLIS = 500;
+    // Tile requests in flight at once
+    private static final int TILE_WINDOW = 32;
+    // Event of a message the game loop doesn't wait for
+    private static final byte OTHER = 0;
+
+    private final Socket socket;
+    // 0 for the first client of the pair to connect, 1 for the second
+    private final int index;
+    private final long connectStarted;
+    private final GamePair pair;
+    private final LoadTest.Config config;
+    private final LoadTest.Results results;
+    private final Random random;
+    private InputStream in;
+    private OutputStream out;
+    private MazeGrid grid;
+    private Node start;
+    private Node end;
+    // Past this point a client stops waiting on the server and counts as failed
+    private long deadline;
+    // Set by a TURN event: 1 when the turn is ours
+    private int turnValue;
+    // Set by a MOVE event: cells the opponent moved
+    private int movedCells;
+
+    GameClient(Socket socket, int index, long connectStarted, GamePair pair, LoadTest.Config config, LoadTest.Results results, long seed) {
+        this.socket = socket;
+        this.index = index;
+        this.connectStarted = connectStarted;
+        this.pair = pair;
+        this.config = config;
+        this.results = results;
+        this.random = new Random(seed);
+    }
+
+    @Override
+    public void run() {
+        deadline = connectStarted + config.timeoutNanos;
+        try {
+            in = new BufferedInputStream(socket.getInputStream());
+            out = socket.getOutputStream();
+            // The handshake has nothing to poll for: its replies may wait until the deadline (a cold
+            // server answers the first sessions slowly), the game loop then polls
+            socket.setSoTimeout((int) Math.max(1, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime())));
+            if (config.binary) {
+                initializeBinary();
+            } else {
+                initialize();
+            }
+            socket.setSoTimeout(POLL_MILLIS);
+            awaitEvent(BinaryProtocol.TURN);
+            if (turnValue == 1) {
+                play();
+            } else {
+                watch();
+            }
+        } catch (IOException e) {
+            results.errors.increment();
+            pair.finish();
+        } finally {
+            try {
+                socket.close();
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    // row, column, theme, start, end, then maze. The server starts the game once both players have their
+    // maze, so asking for it last keeps turn messages from interleaving with the start and end replies
+    private void initialize() throws IOException {
+        send("row");
+        int nbRow = Integer.parseInt(readLine());
+        send("column");
+        int nbColumn = Integer.parseInt(readLine());
+        send("theme");
+        readLine();
+        send("start");
+        readLine();
+        send("end");
+        readLine();
+        if (config.tiles) {
+            send("tiles");
+            String[] fields = readLine().split(" ");
+            int[] header = new int[fields.length];
+            for (int i = 0; i < fields.length; i++) {
+                header[i] = Integer.parseInt(fields[i]);
+            }
+            fetchTiles(header);
+            send("ready");
+            return;
+        }
+        if (config.regenerate) {
+            send("seed");
+            MazeDescriptor descriptor = MazeDescriptor.parse(readLine());
+            if (descriptor != null && descriptor.canGenerate()) {
+                mazeGenerated(descriptor, nbRow, nbColumn);
+                return;
+            }
+        }
+        send(config.deflate ? "deflated-maze" : "maze");
+        InputStream payload = new ByteArrayInputStream(MazeCodec.readFrame(in));
+        mazeReceived(config.deflate ? MazeCodec.inflate(payload) : payload, nbRow, nbColumn);
+    }
+
+    // HELLO, theme, then the maze, which carries its size and the start and end cells
+    private void initializeBinary() throws IOException {
+        sendFrame(BinaryProtocol.hello());
+        if (readFrame() != BinaryProtocol.HELLO || BinaryProtocol.helloVersion(frames) != BinaryProtocol.VERSION) {
+            throw new IOException("Server did not accept the binary protocol");
+        }
+        sendFrame(request(BinaryProtocol.THEME));
+        awaitEvent(BinaryProtocol.THEME);
+        if (config.tiles) {
+            sendFrame(request(BinaryProtocol.TILED_MAZE));
+            awaitEvent(BinaryProtocol.TILED_MAZE);
+            int[] header = new int[7];
+            for (int i = 0; i < header.length; i++) {
+                header[i] = BinaryProtocol.bodyInt(frames, i);
+            }
+            fetchTiles(header);
+            sendFrame(request(BinaryProtocol.READY));
+            return;
+        }
+        if (config.regenerate) {
+            sendFrame(request(BinaryProtocol.DESCRIPTOR));
+            awaitEvent(BinaryProtocol.DESCRIPTOR);
+            if (BinaryProtocol.bodyLength(frames) == MazeDescriptor.SIZE) {
+                MazeDescriptor descriptor = MazeDescriptor.decode(frames.duplicate().position(frames.position() + BinaryProtocol.HEADER_SIZE));
+                if (descriptor.canGenerate()) {
+                    mazeGenerated(descriptor, -1, -1);
+                    return;
+                }
+            }
+        }
+        byte type = config.deflate ? BinaryProtocol.DEFLATED_MAZE : BinaryProtocol.MAZE;
+        sendFrame(request(type));
+        awaitEvent(type);
+        InputStream payload = new ByteArrayInputStream(frames.array(), frames.position() + BinaryProtocol.HEADER_SIZE,
+                BinaryProtocol.bodyLength(frames));
+        mazeReceived(config.deflate ? MazeCodec.inflate(payload) : payload, -1, -1);
+    }
+
+    // Decodes the maze, checking its size unless nbRow is -1
+    private void mazeReceived(InputStream payload, int nbRow, int nbColumn) throws IOException {
+        MazeDecoder decoder = new MazeDecoder(payload);
+        start = new Node(decoder.getStartRow(), decoder.getStartColumn());
+        end = new Node(decoder.getEndRow(), decoder.getEndColumn());
+        grid = decoder.readGrid();
+        mazeReady(nbRow, nbColumn);
+    }
+
+    // Generates the maze the server sent the descriptor of, as a client that doesn't download it would
+    private void mazeGenerated(MazeDescriptor descriptor, int nbRow, int nbColumn) throws IOException {
+        Maze maze = descriptor.generate();
+        start = maze.getStart();
+        end = maze.getEnd();
+        grid = maze.getGrid();
+        mazeReady(nbRow, nbColumn);
+    }
+
+    // header: nbRow, nbColumn, start and end cells, tile size. The tiles of the start and end cells
+    // come first: a player could move from there, so that is when the maze counts as received. The
+    // other tiles follow before the client says it's ready, the solver needs the whole maze.
+    private void fetchTiles(int[] header) throws IOException {
+        if (header.length != 7 || header[6] != MazeTiles.TILE_SIZE) {
+            throw new IOException("Unexpected tiled maze header");
+        }
+        grid = new MazeGrid(header[0], header[1]);
+        start = new Node(header[2], header[3]);
+        end = new Node(header[4], header[5]);
+        int nbTileColumns = MazeTiles.tileCount(header[1]);
+        int nbTiles = MazeTiles.tileCount(header[0]) * nbTileColumns;
+        int startTile = header[2] / MazeTiles.TILE_SIZE * nbTileColumns + header[3] / MazeTiles.TILE_SIZE;
+        int endTile = header[4] / MazeTiles.TILE_SIZE * nbTileColumns + header[5] / MazeTiles.TILE_SIZE;
+        List<Integer> first = startTile == endTile ? List.of(startTile) : List.of(startTile, endTile);
+        fetchTiles(first, nbTileColumns);
+        mazeReady(-1, -1);
+        List<Integer> rest = new ArrayList<>(nbTiles);
+        for (int tile = 0; tile < nbTiles; tile++) {
+            if (!first.contains(tile)) {
+                rest.add(tile);
+            }
+        }
+        fetchTiles(rest, nbTileColumns);
+    }
+
+    // Keeps up to TILE_WINDOW requests in flight
+    private void fetchTiles(List<Integer> tiles, int nbTileColumns) throws IOException {
+        int requested = 0;
+        for (int received = 0; received < tiles.size(); received++) {
+            while (requested < tiles.size() && requested - received < TILE_WINDOW) {
+                int tile = tiles.get(requested++);
+                requestTile(tile / nbTileColumns, tile % nbTileColumns);
+            }
+            if (config.binary) {
+                awaitEvent(BinaryProtocol.TILE);
+                MazeTiles.decode(frames.duplicate().position(frames.position() + BinaryProtocol.HEADER_SIZE), grid);
+            } else {
+                MazeTiles.decode(ByteBuffer.wrap(MazeCodec.readFrame(in)), grid);
+            }
+        }
+    }
+
+    private void requestTile(int tileRow, int tileColumn) throws IOException {
+        if (config.binary) {
+            ByteBuffer frame = ByteBuffer.allocate(BinaryProtocol.HEADER_SIZE + 2 * Integer.BYTES);
+            BinaryProtocol.putTileRequest(frame, tileRow, tileColumn);
+            sendFrame(frame.flip());
+        } else {
+            send("tile\n(" + tileRow + "," + tileColumn + ")");
+        }
+    }
+
+    private void mazeReady(int nbRow, int nbColumn) throws IOException {
+        results.connectToMaze.recordValue(System.nanoTime() - connectStarted);
+        if (nbRow >= 0 && (grid.getNbRow() != nbRow || grid.getNbColumn() != nbColumn)) {
+            throw new IOException("Maze size does not match row/column");
+        }
+        if (!pair.registerMaze(index, start.getRow() + "," + start.getColumn() + "-" + end.getRow() + "," + end.getColumn())) {
+            results.pairingMismatches.increment();
+        }
+        results.sessions.increment();
+    }
+
+    // The player holding the turn: follows the shortest path (or walks randomly), one move at a time,
+    // or a run of moves at a time with batch, waiting for its score update before going on
+    private void play() throws IOException {
+        List<Node> path = config.randomMoves ? List.of() : DistanceField.build(grid, end).getPath(start.getRow(), start.getColumn());
+        int row = start.getRow();
+        int column = start.getColumn();
+        List<Node> run = new ArrayList<>(config.batch);
+        int move = 0;
+        while (move < config.moves) {
+            run.clear();
+            while (run.size() < config.batch && move + run.size() < config.moves) {
+                Node next;
+                if (config.randomMoves) {
+                    next = randomStep(row, column);
+                } else if (move + run.size() + 1 < path.size()) {
+                    next = path.get(move + run.size() + 1);
+                } else {
+                    next = null;
+                }
+                if (next == null) {
+                    break;
+                }
+                row = next.getRow();
+                column = next.getColumn();
+                run.add(next);
+                if (row == end.getRow() && column == end.getColumn()) {
+                    break;
+                }
+            }
+            if (run.isEmpty()) {
+                break;
+            }
+            long sent = System.nanoTime();
+            for (int i = 0; i < run.size(); i++) {
+                pair.moveSent(sent);
+            }
+            // A heartbeat every ten moves or so
+            sendMoves(run, (move + run.size()) / 10 > move / 10);
+            move += run.size();
+            awaitEvent(BinaryProtocol.SCORE);
+            results.moveToScore.recordValue(System.nanoTime() - sent);
+            results.moves.add(run.size());
+            if (row == end.getRow() && column == end.getColumn()) {
+                awaitEvent(BinaryProtocol.GAME_OVER);
+                results.gamesCompleted.increment();
+                break;
+            }
+        }
+        pair.finish();
+    }
+
+    // The other player: times every move echoed to it until the mover is done
+    private void watch() throws IOException {
+        int echoed = 0;
+        while (true) {
+            byte event;
+            try {
+                event = readEvent();
+            } catch (SocketTimeoutException e) {
+                if (pair.isFinished() && echoed >= pair.getMovesSent()) {
+                    return;
+                }
+                if (System.nanoTime() - deadline > 0) {
+                    throw e;
+                }
+                continue;
+            }
+            if (event == BinaryProtocol.MOVE) {
+                for (int i = 0; i < movedCells; i++) {
+                    long sent = pair.sentAt(echoed++);
+                    if (sent >= 0) {
+                        results.moveToEcho.recordValue(System.nanoTime() - sent);
+                    }
+                }
+            } else if (event == BinaryProtocol.GAME_OVER) {
+                return;
+            }
+        }
+    }
+
+    private Node randomStep(int row, int column) {
+        int first = random.nextInt(8);
+        for (int i = 0; i < 8; i++) {
+            int direction = (first + i) % 8;
+            if (grid.canMove(row, column, direction)) {
+                return grid.node(row + MazeGrid.D_ROW[direction], column + MazeGrid.D_COL[direction]);
+            }
+        }
+        return null;
+    }
+
+    // One cell is sent as a move, several as a path
+    private void sendMoves(List<Node> run, boolean heartbeat) throws IOException {
+        Node last = run.get(run.size() - 1);
+        if (config.binary) {
+            ByteBuffer message = ByteBuffer.allocate(BinaryProtocol.pathSize(run.size()) + BinaryProtocol.HEADER_SIZE);
+            if (run.size() == 1) {
+                BinaryProtocol.putMove(message, last.getRow(), last.getColumn());
+            } else {
+                BinaryProtocol.putPath(message, run);
+            }
+            if (heartbeat) {
+                BinaryProtocol.putEmpty(message, BinaryProtocol.HEARTBEAT);
+            }
+            sendFrame(message.flip());
+            return;
+        }
+        if (run.size() == 1) {
+            send("node");
+            send("(" + last.getRow() + "," + last.getColumn() + ")");
+        } else {
+            StringBuilder cells = new StringBuilder();
+            for (Node cell : run) {
+                if (!cells.isEmpty()) {
+                    cells.append(TextProtocol.CELL_SEPARATOR);
+                }
+                cells.append('(').append(cell.getRow()).append(',').append(cell.getColumn()).append(')');
+            }
+            send("path");
+            send(cells.toString());
+        }
+        if (heartbeat) {
+            send("heartbeat");
+        }
+    }
+
+    private void send(String message) throws IOException {
+        out.write((message + "\n").getBytes(StandardCharsets.US_ASCII));
+        out.flush();
+    }
+
+    private void sendFrame(ByteBuffer frame) throws IOException {
+        out.write(frame.array(), frame.position(), frame.remaining());
+        out.flush();
+    }
+
+    private static ByteBuffer request(byte type) {
+        ByteBuffer frame = ByteBuffer.allocate(BinaryProtocol.HEADER_SIZE);
+        BinaryProtocol.putEmpty(frame, type);
+        return frame.flip();
+    }
+
+    // Skips events until one of this type; read timeouts are retried until the deadline
+    private void awaitEvent(byte expected) throws IOException {
+        while (true) {
+            byte event;
+            try {
+                event = readEvent();
+            } catch (SocketTimeoutException e) {
+                if (pair.isFinished() || System.nanoTime() - deadline > 0) {
+                    throw e;
+                }
+                continue;
+            }
+            if (event == expected) {
+                return;
+            }
+        }
+    }
+
+    // Next message from the server as an event. Only the player's own score counts as SCORE.
+    private byte readEvent() throws IOException {
+        if (config.binary) {
+            byte type = readFrame();
+            if (type == BinaryProtocol.TURN) {
+                turnValue = BinaryProtocol.bodyByte(frames, 0);
+            } else if (type == BinaryProtocol.MOVE) {
+                movedCells = 1;
+            } else if (type == BinaryProtocol.PATH) {
+                movedCells = BinaryProtocol.pathCells(frames);
+                return BinaryProtocol.MOVE;
+            } else if (type == BinaryProtocol.SCORE && BinaryProtocol.bodyByte(frames, 0) != 0) {
+                return OTHER;
+            }
+            return type;
+        }
+        switch (readLine()) {
+            case "turn":
+                turnValue = 1;
+                return BinaryProtocol.TURN;
+            case "not":
+                turnValue = 0;
+                return BinaryProtocol.TURN;
+            case "score":
+                readLine();
+                return BinaryProtocol.SCORE;
+            case "node":
+                readLine();
+                movedCells = 1;
+                return BinaryProtocol.MOVE;
+            case "gameOver":
+                return BinaryProtocol.GAME_OVER;
+            default:
+                // otherScore's value line is skipped as an unknown line
+                return OTHER;
+        }
+    }
+
+    private final ByteArrayOutputStream lineBuffer = new ByteArrayOutputStream();
+
+    // Text lines and the binary maze frame share the stream, so lines are read byte by byte
+    private String readLine() throws IOException {
+        while (true) {
+            int b = in.read();
+            if (b < 0) {
+                throw new EOFException("Server closed the connection");
+            }
+            if (b == '\n') {
+                String line = lineBuffer.toString(StandardCharsets.UTF_8).trim();
+                lineBuffer.reset();
+                return line;
+            }
+            lineBuffer.write(b);
+        }
+    }
+
+    // Binary frames received and not handled yet, in read mode. A read timeout leaves a partial frame
+    // in place for the next call.
+    private ByteBuffer frames = ByteBuffer.allocate(1024).flip();
+    // Size of the frame returned by the last readFrame, skipped by the next one
+    private int lastFrameSize;
+
+    // Reads until a whole frame is buffered and returns its type; the frame is at the position of frames
+    private byte readFrame() throws IOException {
+        frames.position(frames.position() + lastFrameSize);
+        lastFrameSize = 0;
+        int size;
+        while ((size = BinaryProtocol.frameSize(frames, MazeCodec.MAX_FRAME_SIZE)) < 0) {
+            frames.compact();
+            try {
+                if (!frames.hasRemaining()) {
+                    frames = ByteBuffer.allocate(2 * frames.capacity()).put(frames.flip());
+                }
+                int read = in.read(frames.array(), frames.position(), frames.remaining());
+                if (read < 0) {
+                    throw new EOFException("Server closed the connection");
+                }
+                frames.position(frames.position() + read);
+            } finally {
+                frames.flip();
+            }
+        }
+        lastFrameSize = size;
+        return BinaryProtocol.type(frames);
+    }
+}
@@ -0,0 +1,47 @@
+package org.algorithm.loadtest;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+// State shared by the two clients of one game: when each move was sent, so the waiting player can
+// time its echo, and whether the moving player is done
+class GamePair {
+    private final long[] sentAt;
+    private volatile int movesSent;
+    private volatile boolean finished;
+    // Start and end cells each client was served, to check the server paired them together
+    private final AtomicReferenceArray<String> mazeIds = new AtomicReferenceArray<>(2);
+
+    GamePair(int maxMoves) {
+        this.sentAt = new long[maxMoves];
+    }
+
+    // Called by the moving player before the move is written
+    void moveSent(long nanos) {
+        sentAt[movesSent] = nanos;
+        movesSent = movesSent + 1;
+    }
+
+    // Send time of the move with this number, the volatile read of movesSent publishes sentAt
+    long sentAt(int move) {
+        return move < movesSent ? sentAt[move] : -1;
+    }
+
+    int getMovesSent() {
+        return movesSent;
+    }
+
+    void finish() {
+        finished = true;
+    }
+
+    boolean isFinished() {
+        return finished;
+    }
+
+    // Returns false when both clients are in and were not served the same maze
+    boolean registerMaze(int client, String mazeId) {
+        mazeIds.set(client, mazeId);
+        String other = mazeIds.get(1 - client);
+        return other == null || other.equals(mazeId);
+    }
+}
@@ -0,0 +1,251 @@
+package org.algorithm.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.algorithm.game_server.protocol.BinaryProtocol;
+import org.algorithm.game_server.server.NioServerImpl;
+import org.algorithm.game_server.server.ServerImpl;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+// Loopback load generator: opens client pairs against a game server, plays their games over the text
+// or binary protocol and reports latency percentiles.
+// Arguments are key=value pairs, e.g. pairs=500 moves=40 mode=solver embedded=nio
+//   host, port       server to connect to (localhost:5000)
+//   pairs            games to play (100)
+//   concurrency      games in flight at once (all of them)
+//   moves            moves per game at most (50)
+//   mode             solver follows the shortest path to the end, random makes random legal moves
+//   protocol         text or binary (text)
+//   batch            moves sent in one path command, 1 sends single moves (1)
+//   maze             payload downloads the maze, deflate downloads it deflated, seed generates it
+//                    from the server's descriptor, tiles fetches it in tiles, the start and end
+//                    tiles first (payload)
+//   seed             seed for the random moves (42)
+//   embedded         start a server in this process: threads, virtual, nio or none (none)
+//   timeout          seconds a client waits on the server before giving up (60)
+public class LoadTest {
+    // Until then a refused connection means the embedded server isn't listening yet
+    private static volatile long serverStartDeadline = System.nanoTime();
+    // Held so the level set on it isn't lost when the logger is garbage collected
+    private static final Logger SERVER_LOGGER = Logger.getLogger(ServerImpl.class.getName());
+
+    static final class Config {
+        String host = "localhost";
+        int port = 5000;
+        int pairs = 100;
+        int concurrency = 0;
+        int moves = 50;
+        boolean randomMoves = false;
+        boolean binary = false;
+        int batch = 1;
+        // Generate the maze from its descriptor instead of downloading it
+        boolean regenerate = false;
+        // Download the maze deflated
+        boolean deflate = false;
+        // Fetch the maze a tile at a time
+        boolean tiles = false;
+        long seed = 42;
+        String embedded = "none";
+        long timeoutNanos = TimeUnit.SECONDS.toNanos(60);
+
+        static Config parse(String[] args) {
+            Map<String, String> values = new HashMap<>();
+            for (String arg : args) {
+                int separator = arg.indexOf('=');
+                if (separator < 0) {
+                    throw new IllegalArgumentException("Expected key=value, got " + arg);
+                }
+                values.put(arg.substring(0, separator), arg.substring(separator + 1));
+            }
+            Config config = new Config();
+            config.host = values.getOrDefault("host", config.host);
+            config.port = Integer.parseInt(values.getOrDefault("port", String.valueOf(config.port)));
+            config.pairs = Integer.parseInt(values.getOrDefault("pairs", String.valueOf(config.pairs)));
+            config.concurrency = Integer.parseInt(values.getOrDefault("concurrency", String.valueOf(config.pairs)));
+            config.moves = Integer.parseInt(values.getOrDefault("moves", String.valueOf(config.moves)));
+            String mode = values.getOrDefault("mode", "solver");
+            if (!mode.equals("solver") && !mode.equals("random")) {
+                throw new IllegalArgumentException("Unknown mode: " + mode + " (expected solver or random)");
+            }
+            config.randomMoves = mode.equals("random");
+            String protocol = values.getOrDefault("protocol", "text");
+            if (!protocol.equals("text") && !protocol.equals("binary")) {
+                throw new IllegalArgumentException("Unknown protocol: " + protocol + " (expected text or binary)");
+            }
+            config.binary = protocol.equals("binary");
+            config.batch = Integer.parseInt(values.getOrDefault("batch", String.valueOf(config.batch)));
+            if (config.batch < 1 || config.batch > BinaryProtocol.MAX_PATH_CELLS) {
+                throw new IllegalArgumentException("batch must be between 1 and " + BinaryProtocol.MAX_PATH_CELLS);
+            }
+            String maze = values.getOrDefault("maze", "payload");
+            if (!List.of("payload", "deflate", "seed", "tiles").contains(maze)) {
+                throw new IllegalArgumentException("Unknown maze transfer: " + maze + " (expected payload, deflate, seed or tiles)");
+            }
+            config.regenerate = maze.equals("seed");
+            config.deflate = maze.equals("deflate");
+            config.tiles = maze.equals("tiles");
+            config.seed = Long.parseLong(values.getOrDefault("seed", String.valueOf(config.seed)));
+            config.embedded = values.getOrDefault("embedded", config.embedded);
+            config.timeoutNanos = TimeUnit.SECONDS.toNanos(Long.parseLong(values.getOrDefault("timeout", "60")));
+            return config;
+        }
+    }
+
+    // Shared by every client; histograms are in nanoseconds and resize themselves
+    static final class Results {
+        final Histogram connectToMaze = new ConcurrentHistogram(3);
+        final Histogram moveToEcho = new ConcurrentHistogram(3);
+        final Histogram moveToScore = new ConcurrentHistogram(3);
+        final LongAdder sessions = new LongAdder();
+        final LongAdder moves = new LongAdder();
+        final LongAdder gamesCompleted = new LongAdder();
+        final LongAdder errors = new LongAdder();
+        final LongAdder pairingMismatches = new LongAdder();
+    }
+
+    private static String maze(Config config) {
+        return config.tiles ? "tiles" : config.regenerate ? "seed" : config.deflate ? "deflate" : "payload";
+    }
+
+    public static void main(String[] args) throws Exception {
+        Config config = Config.parse(args);
+        startEmbeddedServer(config);
+        Results results = new Results();
+
+        System.out.printf("Playing %d games (%d at once, %d moves max, %s moves by %d, %s protocol, maze by %s) against %s:%d%n",
+                config.pairs, config.concurrency, config.moves, config.randomMoves ? "random" : "solver",
+                config.batch, config.binary ? "binary" : "text", maze(config),
+                config.host, config.port);
+        Semaphore inFlight = new Semaphore(config.concurrency);
+        long started = System.nanoTime();
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < config.pairs; i++) {
+                inFlight.acquire();
+                GamePair pair = new GamePair(config.moves);
+                // Both sockets are opened from this thread one after the other, the server pairs
+                // connections in the order it accepts them
+                Socket first;
+                Socket second;
+                long firstStarted = System.nanoTime();
+                long secondStarted;
+                try {
+                    first = connect(config);
+                    secondStarted = System.nanoTime();
+                    second = connect(config);
+                } catch (IOException e) {
+                    results.errors.increment();
+                    inFlight.release();
+                    continue;
+                }
+                AtomicInteger done = new AtomicInteger();
+                Runnable release = () -> {
+                    if (done.incrementAndGet() == 2) {
+                        inFlight.release();
+                    }
+                };
+                GameClient firstClient = new GameClient(first, 0, firstStarted, pair, config, results, config.seed + 2L * i);
+                GameClient secondClient = new GameClient(second, 1, secondStarted, pair, config, results, config.seed + 2L * i + 1);
+                clients.execute(() -> runThen(firstClient, release));
+                clients.execute(() -> runThen(secondClient, release));
+            }
+        }
+        long elapsed = System.nanoTime() - started;
+        report(config, results, elapsed);
+        // The embedded server's session threads aren't daemons
+        System.exit(0);
+    }
+
+    private static void runThen(Runnable client, Runnable after) {
+        try {
+            client.run();
+        } finally {
+            after.run();
+        }
+    }
+
+    // Refused connections are retried while an embedded server may still be starting
+    private static Socket connect(Config config) throws IOException {
+        while (true) {
+            Socket socket = new Socket();
+            socket.setTcpNoDelay(true);
+            try {
+                socket.connect(new InetSocketAddress(config.host, config.port));
+                return socket;
+            } catch (ConnectException e) {
+                socket.close();
+                if (System.nanoTime() - serverStartDeadline > 0) {
+                    throw e;
+                }
+                try {
+                    Thread.sleep(50);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    throw e;
+                }
+            }
+        }
+    }
+
+    // Runs the server on a daemon thread. There is no probing for readiness: the server pairs every
+    // connection it accepts, so the first client's connect retries instead
+    private static void startEmbeddedServer(Config config) {
+        if (config.embedded.equals("none")) {
+            return;
+        }
+        // Per move info logging would measure the console rather than the server
+        SERVER_LOGGER.setLevel(Level.WARNING);
+        Thread serverThread = new Thread(() -> {
+            try {
+                switch (config.embedded) {
+                    case "threads" -> new ServerImpl(config.port, false).start();
+                    case "virtual" -> new ServerImpl(config.port, true).start();
+                    case "nio" -> new NioServerImpl(config.port).start();
+                    default -> throw new IllegalArgumentException("Unknown server: " + config.embedded
+                            + " (expected threads, virtual, nio or none)");
+                }
+            } catch (IOException e) {
+                System.out.println("Embedded server error: " + e.getMessage());
+            }
+        }, "embedded-server");
+        serverThread.setDaemon(true);
+        serverThread.start();
+        serverStartDeadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+    }
+
+    private static void report(Config config, Results results, long elapsedNanos) {
+        double seconds = elapsedNanos / 1e9;
+        System.out.println();
+        System.out.printf("Elapsed              %.2f s%n", seconds);
+        System.out.printf("Sessions started     %d (%.1f/s)%n", results.sessions.sum() / 2, results.sessions.sum() / 2 / seconds);
+        System.out.printf("Games finished       %d%n", results.gamesCompleted.sum());
+        System.out.printf("Moves                %d (%.1f/s)%n", results.moves.sum(), results.moves.sum() / seconds);
+        System.out.printf("Errors               %d%n", results.errors.sum());
+        System.out.printf("Pairing mismatches   %d%n", results.pairingMismatches.sum());
+        System.out.println();
+        System.out.printf("%-22s %8s %9s %9s %9s %9s%n", "latency (ms)", "count", "p50", "p99", "p999", "max");
+        print("connect -> maze", results.connectToMaze);
+        print("move -> opponent node", results.moveToEcho);
+        print("move -> score", results.moveToScore);
+    }
+
+    private static void print(String name, Histogram histogram) {
+        System.out.printf("%-22s %8d %9.3f %9.3f %9.3f %9.3f%n", name, histogram.getTotalCount(),
+                histogram.getValueAtPercentile(50) / 1e6, histogram.getValueAtPercentile(99) / 1e6,
+                histogram.getValueAtPercentile(99.9) / 1e6, histogram.getMaxValue() / 1e6);
+    }
+}
@@ -0,0 +1,171 @@
+package org.algorithm.components;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.BitSet;
+
+// Primitive backed maze grid: walls packed in the low nibble of one byte per cell,
+// one letter byte per cell and a visited bitset.
+// Cells are addressed by their flat index (row * nbColumn + column).
+public class MazeGrid implements Serializable {
+    // Serializable only because Node views hold their grid; mazes go over the wire through MazeCodec
+    private static final long serialVersionUID = 1L;
+
+    // Border directions, same order as Node borders: top, right, bottom, left
+    public static final int TOP = 0;
+    public static final int RIGHT = 1;
+    public static final int BOTTOM = 2;
+    public static final int LEFT = 3;
+    public static final byte ALL_WALLS = 0b1111;
+
+    // Possible movement directions (8 directions)
+    public static final int[] D_ROW = {-1, -1, -1, 0, 1, 1, 1, 0};
+    public static final int[] D_COL = {-1, 0, 1, 1, 1, 0, -1, -1};
+    // Walls that must be open on the current cell and on the target cell for each direction
+    private static final byte[] CURRENT_MASK = {
+            mask(TOP, LEFT), mask(TOP), mask(TOP, RIGHT), mask(RIGHT),
+            mask(RIGHT, BOTTOM), mask(BOTTOM), mask(BOTTOM, LEFT), mask(LEFT)
+    };
+    private static final byte[] NEIGHBOR_MASK = {
+            mask(RIGHT, BOTTOM), mask(BOTTOM), mask(BOTTOM, LEFT), mask(LEFT),
+            mask(TOP, LEFT), mask(TOP), mask(TOP, RIGHT), mask(RIGHT)
+    };
+
+    private final int nbRow;
+    private final int nbColumn;
+    private final byte[] walls;
+    private final byte[] values;
+    private final BitSet partOfMaze;
+
+    public MazeGrid(int nbRow, int nbColumn) {
+        this.nbRow = nbRow;
+        this.nbColumn = nbColumn;
+        this.walls = new byte[nbRow * nbColumn];
+        this.values = new byte[nbRow * nbColumn];
+        this.partOfMaze = new BitSet(nbRow * nbColumn);
+        Arrays.fill(walls, ALL_WALLS);
+    }
+
+    private static byte mask(int... directions) {
+        int mask = 0;
+        for (int direction : directions) {
+            mask |= 1 << direction;
+        }
+        return (byte) mask;
+    }
+
+    public int getNbRow() {
+        return nbRow;
+    }
+
+    public int getNbColumn() {
+        return nbColumn;
+    }
+
+    public int size() {
+        return walls.length;
+    }
+
+    public int index(int row, int column) {
+        return row * nbColumn + column;
+    }
+
+    public int rowOf(int index) {
+        return index / nbColumn;
+    }
+
+    public int columnOf(int index) {
+        return index % nbColumn;
+    }
+
+    public boolean contains(int row, int column) {
+        return row >= 0 && row < nbRow && column >= 0 && column < nbColumn;
+    }
+
+    public Node node(int row, int column) {
+        return new Node(this, row, column);
+    }
+
+    public Node node(int index) {
+        return new Node(this, rowOf(index), columnOf(index));
+    }
+
+    public int getWalls(int index) {
+        return walls[index];
+    }
+
+    public void setWalls(int index, int mask) {
+        walls[index] = (byte) (mask & ALL_WALLS);
+    }
+
+    public boolean hasBorder(int index, int direction) {
+        return (walls[index] & (1 << direction)) != 0;
+    }
+
+    public void removeBorder(int index, int direction) {
+        walls[index] &= (byte) ~(1 << direction);
+    }
+
+    public char getValue(int index) {
+        return (char) (values[index] & 0xFF);
+    }
+
+    public void setValue(int index, char value) {
+        values[index] = (byte) value;
+    }
+
+    public boolean isPartOfMaze(int index) {
+        return partOfMaze.get(index);
+    }
+
+    public void setPartOfMaze(int index, boolean value) {
+        partOfMaze.set(index, value);
+    }
+
+    // Removes the wall shared by two orthogonally adjacent cells
+    public void removeWallBetween(int current, int next) {
+        int diff = next - current;
+        if (diff == -nbColumn) {
+            removeBorder(current, TOP);
+            removeBorder(next, BOTTOM);
+        } else if (diff == nbColumn) {
+            removeBorder(current, BOTTOM);
+            removeBorder(next, TOP);
+        } else if (diff == -1) {
+            removeBorder(current, LEFT);
+            removeBorder(next, RIGHT);
+        } else if (diff == 1) {
+            removeBorder(current, RIGHT);
+            removeBorder(next, LEFT);
+        }
+    }
+
+    // Checks if a move in one of the 8 directions (index into D_ROW/D_COL) is possible from the given cell
+    public boolean canMove(int row, int column, int direction) {
+        int newRow = row + D_ROW[direction];
+        int newCol = column + D_COL[direction];
+        if (!contains(newRow, newCol)) {
+            return false;
+        }
+        return (walls[row * nbColumn + column] & CURRENT_MASK[direction]) == 0
+                && (walls[newRow * nbColumn + newCol] & NEIGHBOR_MASK[direction]) == 0;
+    }
+
+    // Same rules as canMove, expressed as a row/column delta (a zero delta is always allowed)
+    public boolean canMove(int row, int column, int dRow, int dCol) {
+        if (dRow == 0 && dCol == 0) {
+            return contains(row, column);
+        }
+        int direction = direction(dRow, dCol);
+        return direction >= 0 && canMove(row, column, direction);
+    }
+
+    public static int direction(int dRow, int dCol) {
+        for (int i = 0; i < 8; i++) {
+            if (D_ROW[i] == dRow && D_COL[i] == dCol) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
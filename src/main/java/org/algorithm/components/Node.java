@@ -2,30 +2,42 @@ package org.algorithm.components;
 
 import java.io.Serializable;
 
+// Lightweight view over one cell of a MazeGrid.
+// Nodes created without a grid (start/end markers) keep their own state.
 public class Node implements Serializable {
+    private final MazeGrid grid;
     private int row;
     private int column;
-    private boolean[] borders;
+    private byte borders;
     private char value;
     private boolean partOfMaze;
 
     public Node(int row, int column) {
+        this(null, row, column);
+    }
+
+    public Node(MazeGrid grid, int row, int column) {
+        this.grid = grid;
         this.row = row;
         this.column = column;
-        this.borders = new boolean[]{true, true, true, true}; // Borders: top, right, bottom, left
+        this.borders = MazeGrid.ALL_WALLS; // Borders: top, right, bottom, left
         this.partOfMaze = false;
-
     }
 
-
-
+    private int index() {
+        return grid.index(row, column);
+    }
 
     public void setValue(char value) {
-        this.value = value;
+        if (grid != null) {
+            grid.setValue(index(), value);
+        } else {
+            this.value = value;
+        }
     }
 
     public char getValue() {
-        return value;
+        return grid != null ? grid.getValue(index()) : value;
     }
 
     public int getRow() {
@@ -37,11 +49,30 @@ public class Node implements Serializable {
     }
 
     public boolean[] getBorders() {
-        return borders;
+        int mask = grid != null ? grid.getWalls(index()) : borders;
+        boolean[] result = new boolean[4];
+        for (int direction = 0; direction < 4; direction++) {
+            result[direction] = (mask & (1 << direction)) != 0;
+        }
+        return result;
     }
 
     public void setBorders(boolean[] borders) {
-        this.borders = borders;
+        int mask = 0;
+        for (int direction = 0; direction < 4; direction++) {
+            if (borders[direction]) {
+                mask |= 1 << direction;
+            }
+        }
+        if (grid != null) {
+            grid.setWalls(index(), mask);
+        } else {
+            this.borders = (byte) mask;
+        }
+    }
+
+    public boolean hasBorder(int direction) {
+        return grid != null ? grid.hasBorder(index(), direction) : (borders & (1 << direction)) != 0;
     }
 
     public void setRow(int row) {
@@ -53,7 +84,11 @@ public class Node implements Serializable {
     }
 
     public void removeBorder(int direction) {
-        borders[direction] = false;
+        if (grid != null) {
+            grid.removeBorder(index(), direction);
+        } else {
+            borders &= (byte) ~(1 << direction);
+        }
     }
 
     public int incrementRow(int increment) {
@@ -66,11 +101,30 @@ public class Node implements Serializable {
 
     // New method to check if the node is part of the maze
     public boolean isPartOfMaze() {
-        return partOfMaze;
+        return grid != null ? grid.isPartOfMaze(index()) : partOfMaze;
     }
 
     // New method to set whether the node is part of the maze
     public void setPartOfMaze(boolean partOfMaze) {
-        this.partOfMaze = partOfMaze;
+        if (grid != null) {
+            grid.setPartOfMaze(index(), partOfMaze);
+        } else {
+            this.partOfMaze = partOfMaze;
+        }
+    }
+
+    // Two views are equal when they point at the same cell of the same grid
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        Node node = (Node) o;
+        return grid != null && grid == node.grid && row == node.row && column == node.column;
+    }
+
+    @Override
+    public int hashCode() {
+        // Plain arithmetic: no boxing, no varargs array, on every lookup
+        return 31 * (31 * System.identityHashCode(grid) + row) + column;
     }
 }
@@ -0,0 +1,84 @@
+package org.algorithm.data;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.zip.CRC32;
+
+// Process wide, parse once view of dictionary.json. Themes are loaded on first use and shared
+// read only by every generator, solver and session.
+public final class DictionaryRegistry {
+    private static final String DICTIONARY_FILE = "dictionary.json";
+
+    private final Map<String, ThemeDictionary> themes;
+    private final List<String> themeNames;
+    // CRC32 of dictionary.json: a maze regenerated from a seed only matches with the same words
+    private final int version;
+
+    private DictionaryRegistry(Map<String, List<String>> words, int version) {
+        Map<String, ThemeDictionary> loaded = new LinkedHashMap<>();
+        for (Map.Entry<String, List<String>> entry : words.entrySet()) {
+            if (!entry.getValue().isEmpty()) {
+                loaded.put(entry.getKey(), new ThemeDictionary(entry.getKey(), entry.getValue()));
+            }
+        }
+        this.themes = loaded;
+        this.themeNames = List.copyOf(loaded.keySet());
+        this.version = version;
+    }
+
+    // Lazy holder, the file is read and parsed by the first caller only
+    private static final class Holder {
+        private static final DictionaryRegistry INSTANCE = load();
+    }
+
+    public static DictionaryRegistry getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    private static DictionaryRegistry load() {
+        ObjectMapper mapper = new ObjectMapper();
+        SimpleModule module = new SimpleModule();
+        module.addDeserializer(WordData.class, new WordDataDeserializer());
+        mapper.registerModule(module);
+        try (InputStream inputStream = DictionaryRegistry.class.getClassLoader().getResourceAsStream(DICTIONARY_FILE)) {
+            if (inputStream == null) {
+                throw new RuntimeException("File not found: " + DICTIONARY_FILE);
+            }
+            byte[] content = inputStream.readAllBytes();
+            CRC32 crc = new CRC32();
+            crc.update(content);
+            WordData wordData = mapper.readValue(content, WordData.class);
+            return new DictionaryRegistry(wordData.getWords(), (int) crc.getValue());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to load " + DICTIONARY_FILE, e);
+        }
+    }
+
+    public int getVersion() {
+        return version;
+    }
+
+    public List<String> getThemeNames() {
+        return themeNames;
+    }
+
+    public ThemeDictionary get(String theme) {
+        ThemeDictionary dictionary = themes.get(theme);
+        if (dictionary == null) {
+            throw new IllegalArgumentException("Unknown theme: " + theme);
+        }
+        return dictionary;
+    }
+
+    public ThemeDictionary random(Random random) {
+        return themes.get(themeNames.get(random.nextInt(themeNames.size())));
+    }
+}
@@ -0,0 +1,41 @@
+package org.algorithm.data;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+// Immutable word list of one theme, with its lowercase set and compiled automaton.
+// Instances come from DictionaryRegistry and are shared by every maze using the theme.
+public final class ThemeDictionary {
+    private final String name;
+    private final List<String> words;
+    private final Set<String> lowerWords;
+    private final WordAutomaton automaton;
+
+    ThemeDictionary(String name, List<String> words) {
+        this.name = name;
+        this.words = List.copyOf(words);
+        Set<String> lower = new HashSet<>();
+        for (String word : words) {
+            lower.add(word.toLowerCase());
+        }
+        this.lowerWords = Set.copyOf(lower);
+        this.automaton = new WordAutomaton(this.words);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public List<String> getWords() {
+        return words;
+    }
+
+    public Set<String> getLowerWords() {
+        return lowerWords;
+    }
+
+    public WordAutomaton getAutomaton() {
+        return automaton;
+    }
+}
@@ -0,0 +1,174 @@
+package org.algorithm.data;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+// Aho-Corasick automaton over the lowercase words of a dictionary.
+// Every distinct word gets an integer id, so callers can track found words in a BitSet.
+// The automaton is immutable once built and can be shared between threads.
+public final class WordAutomaton {
+    private static final int ROOT = 0;
+
+    // Maps an ASCII char to its column in the transition table, -1 when no word uses it
+    private final int[] symbolOf = new int[128];
+    private final int nbSymbols;
+    // Full DFA: transitions[state * nbSymbols + symbol]
+    private final int[] transitions;
+    // Word id ending at a state, or -1
+    private final int[] wordAt;
+    // Next state on the suffix chain that ends a word, or -1
+    private final int[] outputLink;
+    private final String[] words;
+
+    public WordAutomaton(Collection<String> dictionary) {
+        Arrays.fill(symbolOf, -1);
+        int symbols = 0;
+        List<String> lowerWords = new ArrayList<>();
+        for (String word : dictionary) {
+            String lower = word.toLowerCase();
+            if (lower.isEmpty()) {
+                continue;
+            }
+            lowerWords.add(lower);
+            for (int i = 0; i < lower.length(); i++) {
+                char c = lower.charAt(i);
+                if (c < 128 && symbolOf[c] < 0) {
+                    symbolOf[c] = symbols++;
+                }
+            }
+        }
+        this.nbSymbols = Math.max(symbols, 1);
+
+        // Build the trie, growing the tables as needed
+        int maxStates = 1;
+        for (String word : lowerWords) {
+            maxStates += word.length();
+        }
+        int[] trie = new int[maxStates * nbSymbols];
+        Arrays.fill(trie, -1);
+        int[] ends = new int[maxStates];
+        Arrays.fill(ends, -1);
+        List<String> distinctWords = new ArrayList<>();
+        int nbStates = 1;
+        for (String word : lowerWords) {
+            int state = ROOT;
+            boolean indexable = true;
+            for (int i = 0; i < word.length() && indexable; i++) {
+                char c = word.charAt(i);
+                if (c >= 128) {
+                    // Cells only hold single byte letters, such a word can never be matched
+                    indexable = false;
+                    continue;
+                }
+                int slot = state * nbSymbols + symbolOf[c];
+                if (trie[slot] < 0) {
+                    trie[slot] = nbStates++;
+                }
+                state = trie[slot];
+            }
+            if (indexable && ends[state] < 0) {
+                ends[state] = distinctWords.size();
+                distinctWords.add(word);
+            }
+        }
+
+        this.words = distinctWords.toArray(new String[0]);
+        this.transitions = Arrays.copyOf(trie, nbStates * nbSymbols);
+        this.wordAt = Arrays.copyOf(ends, nbStates);
+        this.outputLink = new int[nbStates];
+        Arrays.fill(outputLink, -1);
+
+        // Breadth first pass computing failure links and completing the DFA
+        int[] fail = new int[nbStates];
+        int[] queue = new int[nbStates];
+        int head = 0;
+        int tail = 0;
+        for (int symbol = 0; symbol < nbSymbols; symbol++) {
+            int child = transitions[symbol];
+            if (child < 0) {
+                transitions[symbol] = ROOT;
+            } else {
+                fail[child] = ROOT;
+                queue[tail++] = child;
+            }
+        }
+        while (head < tail) {
+            int state = queue[head++];
+            int failState = fail[state];
+            outputLink[state] = wordAt[failState] >= 0 ? failState : outputLink[failState];
+            for (int symbol = 0; symbol < nbSymbols; symbol++) {
+                int slot = state * nbSymbols + symbol;
+                int child = transitions[slot];
+                int fallback = transitions[failState * nbSymbols + symbol];
+                if (child < 0) {
+                    transitions[slot] = fallback;
+                } else {
+                    fail[child] = fallback;
+                    queue[tail++] = child;
+                }
+            }
+        }
+    }
+
+    public int root() {
+        return ROOT;
+    }
+
+    public int wordCount() {
+        return words.length;
+    }
+
+    public String word(int id) {
+        return words[id];
+    }
+
+    public int wordLength(int id) {
+        return words[id].length();
+    }
+
+    // Follows one char from the given state, case insensitive
+    public int next(int state, char c) {
+        if (c >= 'A' && c <= 'Z') {
+            c = (char) (c + ('a' - 'A'));
+        }
+        if (c >= 128 || symbolOf[c] < 0) {
+            return ROOT;
+        }
+        return transitions[state * nbSymbols + symbolOf[c]];
+    }
+
+    // First state on the output chain of a state (itself if it ends a word), or -1.
+    // Walk the chain with nextMatch and read ids with wordAt.
+    public int firstMatch(int state) {
+        return wordAt[state] >= 0 ? state : outputLink[state];
+    }
+
+    public int nextMatch(int matchState) {
+        return outputLink[matchState];
+    }
+
+    public int wordAt(int matchState) {
+        return wordAt[matchState];
+    }
+
+    // Id of the word, or -1 when it is not in the dictionary
+    public int indexOf(String word) {
+        int state = ROOT;
+        for (int i = 0; i < word.length(); i++) {
+            char c = Character.toLowerCase(word.charAt(i));
+            if (c >= 128 || symbolOf[c] < 0) {
+                return -1;
+            }
+            state = transitions[state * nbSymbols + symbolOf[c]];
+        }
+        // The DFA may have jumped to a shorter suffix, only accept an exact match
+        int id = wordAt[state];
+        return id >= 0 && words[id].length() == word.length() ? id : -1;
+    }
+
+    public boolean contains(String word) {
+        return indexOf(word) >= 0;
+    }
+}
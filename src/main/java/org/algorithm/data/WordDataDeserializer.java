@@ -20,7 +20,7 @@ public class WordDataDeserializer extends JsonDeserializer<WordData> {
             throw new IllegalArgumentException("JSON does not contain 'words' key");
         }
 
-        Map<String, List<String>> wordsMap = new HashMap<>();
+        Map<String, List<String>> wordsMap = new LinkedHashMap<>();
         Iterator<Map.Entry<String, JsonNode>> categories = wordsNode.fields();
         while (categories.hasNext()) {
             Map.Entry<String, JsonNode> categoryEntry = categories.next();
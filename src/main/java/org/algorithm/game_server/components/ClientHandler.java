@@ -1,28 +1,76 @@
 package org.algorithm.game_server.components;
 
 import org.algorithm.components.Node;
+import org.algorithm.game_server.metrics.CountingOutputStream;
+import org.algorithm.game_server.metrics.ServerMetrics;
+import org.algorithm.game_server.protocol.BinaryProtocol;
+import org.algorithm.game_server.protocol.TextProtocol;
 import org.algorithm.game_server.server.ServerImpl;
+import org.algorithm.maze.codec.MazeDescriptor;
 
 import java.io.*;
 import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 
-public class ClientHandler implements Runnable {
+// Blocking connection of the threads and virtual server modes. The thread running it reads the
+// client's commands; a sender thread drains the outgoing queue, which GameHandler writes to directly.
+// The first byte the client sends picks the protocol: text lines, or binary frames (see BinaryProtocol).
+public class ClientHandler implements Runnable, PlayerConnection {
     private final Socket clientSocket;
+    private final BufferedInputStream rawIn;
     private final BufferedReader in;
     private final PrintWriter out;
+    private final OutputStream rawOut;
     private GameHandler gameHandler;
     private final Logger logger;
     private int clientId;
-    private boolean clientsInitialized = false;
-    private boolean running = true;
+    private volatile boolean running = true;
+    private final AtomicBoolean closed = new AtomicBoolean();
+    // Last time anything was read from the client, heartbeats included (System.nanoTime())
+    private volatile long lastActivity = System.nanoTime();
+    // Next idle check on the shared timing wheel
+    private volatile TimingWheel.Timeout idleTimeout;
+    private final List<Thread> threads = new CopyOnWriteArrayList<>();
     private final BlockingQueue<String> outgoingMessages = new LinkedBlockingQueue<>();
+    // Queued after the last message of an event, compared by identity
+    private static final String END_OF_EVENT = new String("");
+    // Longest a partial batch waits for the end of its event
+    private static final long LINGER_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    // Serializes socket writes; a lock rather than a monitor so virtual threads are not pinned during I/O
+    private final ReentrantLock outLock = new ReentrantLock();
+    // Set by the listener before the client's first command is handled
+    private volatile boolean binary = false;
+    // Binary frames of the current event, written by the sender at the end of the event. The sender
+    // swaps the two buffers, so writing one never holds up the session filling the other.
+    private ByteBuffer frames = ByteBuffer.allocate(256);
+    private ByteBuffer framesToWrite = ByteBuffer.allocate(256);
+    private final ReentrantLock framesLock = new ReentrantLock();
+    // Creates the sender thread (platform or virtual, depending on the server mode)
+    private final ThreadFactory threadFactory;
     public ClientHandler(Socket socket) throws IOException {
+        this(socket, Executors.defaultThreadFactory());
+    }
+
+    public ClientHandler(Socket socket, ThreadFactory threadFactory) throws IOException {
         this.clientSocket = socket;
-        this.in = new BufferedReader(new InputStreamReader(clientSocket.getInputStream()));
-        this.out = new PrintWriter(clientSocket.getOutputStream(), true);
+        this.threadFactory = threadFactory;
+        // The reader only pulls bytes once the connection turns out to speak text
+        this.rawIn = new BufferedInputStream(clientSocket.getInputStream());
+        this.in = new BufferedReader(new InputStreamReader(rawIn));
+        this.rawOut = new BufferedOutputStream(new CountingOutputStream(clientSocket.getOutputStream(), ServerMetrics.get().bytesSent));
+        this.out = new PrintWriter(rawOut, true);
         this.logger = Logger.getLogger(ServerImpl.class.getName());
     }
 
@@ -30,11 +78,6 @@ public class ClientHandler implements Runnable {
         this.clientId = clientId;
     }
 
-
-    public boolean isClientsInitialized() {
-        return clientsInitialized;
-    }
-
     public void setGameHandler(GameHandler gameHandler) {
         this.gameHandler = gameHandler;
     }
@@ -43,144 +86,438 @@ public class ClientHandler implements Runnable {
         return clientSocket;
     }
 
+    public int getOutgoingQueueSize() {
+        return outgoingMessages.size();
+    }
+
 
     @Override
     public void run() {
+        threads.add(Thread.currentThread());
+        lastActivity = System.nanoTime();
+        scheduleIdleCheck(PlayerConnection.IDLE_TIMEOUT_NANOS);
+        gameHandler.attachConnection(clientId, this);
+        startMessageSender();
+        listen();
+    }
+
+    // Called from the session's mailbox: only queues, the sender thread does the socket write
+    @Override
+    public void send(String message) {
+        if (running) {
+            outgoingMessages.add(message);
+        }
+    }
+
+    // Called from the session's mailbox: the frame goes out with the rest of the event
+    @Override
+    public void send(ByteBuffer frame) {
+        if (!running) {
+            return;
+        }
+        framesLock.lock();
         try {
-            startMessageListener();
-            startMessageSender();
-
-            BlockingQueue<String> messageQueue = gameHandler.getPlayerMessageQueue(clientId);
-            BlockingQueue<Node> nodeQueue = gameHandler.getPlayerNodeQueue(clientId);
-
-            while (running && !Thread.currentThread().isInterrupted()) {
-                try {
-                    String message = messageQueue.take();
-                    outgoingMessages.put(message);
-                    if (message.equals("node")) {
-                        Node node = nodeQueue.poll();
-                        if (node != null) {
-                            sendNode(node);
-                        }
-                    }
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                    break;
-                }
+            if (frames.remaining() < frame.remaining()) {
+                ByteBuffer larger = ByteBuffer.allocate(Math.max(2 * frames.capacity(), frames.position() + frame.remaining()));
+                frames = larger.put(frames.flip());
             }
-        } catch (Exception e) {
-            logger.warning("Connection error: " + e.getMessage());
+            frames.put(frame);
         } finally {
-            cleanup();
+            framesLock.unlock();
         }
     }
+
+    @Override
+    public boolean isBinaryProtocol() {
+        return binary;
+    }
+
+    @Override
+    public void endOfEvent() {
+        send(END_OF_EVENT);
+    }
+
+    // Drains the outgoing queue in batches: everything queued up to an end-of-event marker (or until
+    // LINGER_NANOS after the batch's first message) is encoded into one buffer and written with a
+    // single flush, so a move's six lines leave in one write instead of six
     private void startMessageSender() {
-        Thread senderThread = new Thread(() -> {
+        Thread senderThread = threadFactory.newThread(() -> {
+            StringBuilder batch = new StringBuilder(256);
             try {
                 while (running && !Thread.currentThread().isInterrupted()) {
                     String message = outgoingMessages.take();
+                    long lingerDeadline = System.nanoTime() + LINGER_NANOS;
+                    int lines = 0;
+                    batch.setLength(0);
+                    while (message != null) {
+                        boolean boundary = message == END_OF_EVENT;
+                        if (!boundary) {
+                            batch.append(message).append('\n');
+                            lines++;
+                        }
+                        message = outgoingMessages.poll();
+                        if (message == null && !boundary) {
+                            // In the middle of an event: give the rest of it a moment to arrive
+                            long remaining = lingerDeadline - System.nanoTime();
+                            if (remaining > 0) {
+                                message = outgoingMessages.poll(remaining, TimeUnit.NANOSECONDS);
+                            }
+                        }
+                    }
+                    if (lines == 0 && !binary) {
+                        continue;
+                    }
+                    outLock.lock();
                     try {
-                        synchronized (out) {
-                            out.println(message);
+                        if (lines > 0) {
+                            out.append(batch);
                             out.flush();
                         }
-                        logger.info("Sent message to client " + clientId + ": " + message);
-                    } catch (Exception e) {
-                        logger.warning("Failed to send message to client " + clientId + ": " + e.getMessage());
-
-                        outgoingMessages.put(message);
+                        if (binary) {
+                            writeFrames();
+                        }
+                    } finally {
+                        outLock.unlock();
+                    }
+                    if (out.checkError()) {
+                        logger.warning("Failed to send messages to client " + clientId);
                         break;
                     }
+                    if (logger.isLoggable(Level.FINE)) {
+                        logger.fine("Sent " + lines + " messages to client " + clientId);
+                    }
                 }
             } catch (InterruptedException e) {
                 Thread.currentThread().interrupt();
             }
         });
         senderThread.setDaemon(true);
+        threads.add(senderThread);
         senderThread.start();
     }
 
-    private void startMessageListener() {
-        Thread listenerThread = new Thread(() -> {
-            try {
-                String inputLine;
-                while (!clientSocket.isClosed() && (inputLine = in.readLine()) != null) {
-                    switch (inputLine) {
-                        case "row":
-                            out.println(gameHandler.getNbRow());
-                            break;
-                        case "column":
-                            out.println(gameHandler.getNbCol());
-                            break;
-                        case "theme":
-                            out.println(gameHandler.getTheme());
-                            break;
-                        case "maze":
-                            gameHandler.sendMaze(clientSocket, gameHandler.getMazeGen().serializeMaze());
-                            clientsInitialized = true;
-                            break;
-                        case "start":
-                            sendNode(gameHandler.getMazeGen().getStart());
-                            break;
-                        case "end":
-                            sendNode(gameHandler.getMazeGen().getEnd());
-                            break;
-                        case "heartbeat":
-                            break;
-                        case "node":
-                            String nodeData = in.readLine();
-                            handleNodeData(nodeData);
-                            break;
-
-                        default:
-                            logger.warning("Unknown message received: " + inputLine);
+    // Sender thread, holding outLock: writes the frames queued so far
+    private void writeFrames() {
+        ByteBuffer toWrite;
+        framesLock.lock();
+        try {
+            if (frames.position() == 0) {
+                return;
+            }
+            toWrite = frames;
+            frames = framesToWrite;
+            framesToWrite = toWrite;
+        } finally {
+            framesLock.unlock();
+        }
+        try {
+            rawOut.write(toWrite.array(), 0, toWrite.position());
+            rawOut.flush();
+        } catch (IOException e) {
+            logger.warning("Failed to send frames to client " + clientId + ": " + e.getMessage());
+        } finally {
+            toWrite.clear();
+        }
+    }
+
+    // Listener thread: a reply written straight to the socket
+    private void writeFrame(ByteBuffer frame) throws IOException {
+        outLock.lock();
+        try {
+            rawOut.write(frame.array(), frame.position(), frame.remaining());
+            rawOut.flush();
+        } finally {
+            outLock.unlock();
+        }
+    }
+
+    private void listen() {
+        try {
+            rawIn.mark(1);
+            int firstByte = rawIn.read();
+            rawIn.reset();
+            if (firstByte >= 0 && BinaryProtocol.isBinaryStart(firstByte)) {
+                binary = true;
+                listenBinary();
+            } else {
+                listenText();
+            }
+        } catch (IOException e) {
+            logger.warning("Connection error: " + e.getMessage());
+        } catch (RuntimeException e) {
+            logger.warning("Connection of client " + clientId + " failed: " + e);
+        } finally {
+            cleanup();
+        }
+    }
+
+    private void listenText() throws IOException {
+        String inputLine;
+        while (!clientSocket.isClosed() && (inputLine = in.readLine()) != null) {
+            lastActivity = System.nanoTime();
+            switch (inputLine) {
+                case "row":
+                    out.println(gameHandler.getNbRow());
+                    break;
+                case "column":
+                    out.println(gameHandler.getNbCol());
+                    break;
+                case "theme":
+                    out.println(gameHandler.getTheme());
+                    break;
+                case "maze":
+                    sendMaze(gameHandler.getMazePayload());
+                    gameHandler.playerReady(clientId);
+                    break;
+                case "deflated-maze":
+                    sendMaze(gameHandler.getDeflatedMazePayload());
+                    gameHandler.playerReady(clientId);
+                    break;
+                case "tiles":
+                    // The client fetches the maze a tile at a time and says "ready" once it can play
+                    out.println(TextProtocol.tiledMaze(gameHandler.getMazeGen()));
+                    break;
+                case "ready":
+                    gameHandler.playerReady(clientId);
+                    break;
+                case "tile":
+                    int[] tile = TextProtocol.parseCells(in.readLine(), 1);
+                    if (tile == null) {
+                        logger.warning("Invalid tile format from client " + clientId);
+                    } else if (!gameHandler.getMazeTiles().contains(tile[0], tile[1])) {
+                        logger.warning("Tile out of maze bounds: (" + tile[0] + "," + tile[1] + ")");
+                    } else {
+                        sendMaze(gameHandler.getMazeTiles().tile(tile[0], tile[1]));
                     }
-                }
-            } catch (IOException e) {
-                logger.warning("Connection error: " + e.getMessage());
-            } finally {
-                cleanup();
+                    break;
+                case "seed":
+                    // The descriptor stands for the maze; "none" and the client asks for the maze
+                    MazeDescriptor descriptor = gameHandler.getMazeDescriptor();
+                    out.println(descriptor == null ? "none" : descriptor.toString());
+                    if (descriptor != null) {
+                        gameHandler.playerReady(clientId);
+                    }
+                    break;
+                case "start":
+                    sendNode(gameHandler.getMazeGen().getStart());
+                    endOfEvent();
+                    break;
+                case "end":
+                    sendNode(gameHandler.getMazeGen().getEnd());
+                    endOfEvent();
+                    break;
+                case "heartbeat":
+                    break;
+                case "hint":
+                    gameHandler.sendHint(clientId);
+                    break;
+                case "node":
+                    String nodeData = in.readLine();
+                    handleNodeData(nodeData);
+                    break;
+                case "path":
+                    handlePathData(in.readLine());
+                    break;
+
+                default:
+                    logger.warning("Unknown message received: " + inputLine);
             }
-        });
-        listenerThread.setDaemon(true);
-        listenerThread.start();
+        }
     }
-    private void handleNodeData(String nodeData) {
-        if (nodeData != null && nodeData.matches("\\(\\d+,\\d+\\)")) {
-            String[] parts = nodeData.substring(1, nodeData.length() - 1).split(",");
-            int row = Integer.parseInt(parts[0]);
-            int column = Integer.parseInt(parts[1]);
-            Node node = gameHandler.getMazeGen().getMaze()[row][column];
+
+    // Frames are read into one buffer and decoded in place. The maze frame carries the size and the
+    // start and end cells, so a binary client only asks for the maze (and the theme if it shows it).
+    private void listenBinary() throws IOException {
+        DataInputStream data = new DataInputStream(rawIn);
+        ByteBuffer frame = ByteBuffer.allocate(BinaryProtocol.LENGTH_SIZE + BinaryProtocol.MAX_CLIENT_FRAME);
+        frame = BinaryProtocol.readFrame(data, frame, BinaryProtocol.MAX_CLIENT_FRAME);
+        int version = BinaryProtocol.helloVersion(frame);
+        if (version < 1) {
+            logger.warning("Client " + clientId + " did not start with a HELLO frame, closing connection");
+            return;
+        }
+        writeFrame(BinaryProtocol.hello());
+        while (!clientSocket.isClosed()) {
             try {
-                gameHandler.addNodeToPath(node, clientId);
-            } catch (InterruptedException e) {
-                throw new RuntimeException(e);
+                frame = BinaryProtocol.readFrame(data, frame, BinaryProtocol.MAX_CLIENT_FRAME);
+            } catch (EOFException e) {
+                return;
+            }
+            lastActivity = System.nanoTime();
+            switch (BinaryProtocol.type(frame)) {
+                case BinaryProtocol.MAZE:
+                    writeMazeFrame(BinaryProtocol.MAZE, gameHandler.getMazePayload());
+                    gameHandler.playerReady(clientId);
+                    break;
+                case BinaryProtocol.DEFLATED_MAZE:
+                    writeMazeFrame(BinaryProtocol.DEFLATED_MAZE, gameHandler.getDeflatedMazePayload());
+                    gameHandler.playerReady(clientId);
+                    break;
+                case BinaryProtocol.DESCRIPTOR:
+                    writeFrame(BinaryProtocol.descriptor(gameHandler.getMazeDescriptor()));
+                    if (gameHandler.getMazeDescriptor() != null) {
+                        gameHandler.playerReady(clientId);
+                    }
+                    break;
+                case BinaryProtocol.TILED_MAZE:
+                    writeFrame(BinaryProtocol.tiledMaze(gameHandler.getMazeGen()));
+                    break;
+                case BinaryProtocol.READY:
+                    gameHandler.playerReady(clientId);
+                    break;
+                case BinaryProtocol.TILE:
+                    if (BinaryProtocol.bodyLength(frame) != 2 * Integer.BYTES) {
+                        logger.warning("Invalid tile frame from client " + clientId);
+                        break;
+                    }
+                    int tileRow = BinaryProtocol.bodyInt(frame, 0);
+                    int tileColumn = BinaryProtocol.bodyInt(frame, 1);
+                    if (!gameHandler.getMazeTiles().contains(tileRow, tileColumn)) {
+                        logger.warning("Tile out of maze bounds: (" + tileRow + "," + tileColumn + ")");
+                        break;
+                    }
+                    writeMazeFrame(BinaryProtocol.TILE, gameHandler.getMazeTiles().tile(tileRow, tileColumn));
+                    break;
+                case BinaryProtocol.THEME:
+                    writeFrame(BinaryProtocol.theme(gameHandler.getTheme()));
+                    break;
+                case BinaryProtocol.MOVE:
+                    if (BinaryProtocol.bodyLength(frame) != 2 * Integer.BYTES) {
+                        logger.warning("Invalid move frame from client " + clientId);
+                        break;
+                    }
+                    handleMove(BinaryProtocol.bodyInt(frame, 0), BinaryProtocol.bodyInt(frame, 1));
+                    break;
+                case BinaryProtocol.PATH:
+                    int nbCells = BinaryProtocol.pathCells(frame);
+                    if (nbCells < 0) {
+                        logger.warning("Invalid path frame from client " + clientId);
+                        break;
+                    }
+                    int[] cells = new int[2 * nbCells];
+                    for (int i = 0; i < cells.length; i++) {
+                        cells[i] = BinaryProtocol.bodyInt(frame, i);
+                    }
+                    handlePath(cells);
+                    break;
+                case BinaryProtocol.HINT:
+                    gameHandler.sendHint(clientId);
+                    break;
+                case BinaryProtocol.HEARTBEAT:
+                    break;
+                default:
+                    logger.warning("Unknown frame type received: " + BinaryProtocol.type(frame));
             }
+        }
+    }
+
+    // The session's payload goes to the socket as is: every recipient shares the same bytes
+    private void sendMaze(byte[] payload) throws IOException {
+        outLock.lock();
+        try {
+            // Text written so far must reach the socket before the binary frame
+            out.flush();
+            gameHandler.sendMaze(rawOut, payload);
+        } finally {
+            outLock.unlock();
+        }
+    }
+
+    private void writeMazeFrame(byte type, byte[] payload) throws IOException {
+        outLock.lock();
+        try {
+            ByteBuffer header = BinaryProtocol.mazeHeader(type, payload.length);
+            rawOut.write(header.array(), 0, header.remaining());
+            rawOut.write(payload);
+            rawOut.flush();
+        } finally {
+            outLock.unlock();
+        }
+    }
+
+    private void handleNodeData(String nodeData) {
+        int[] cell = TextProtocol.parseCells(nodeData, 1);
+        if (cell != null) {
+            handleMove(cell[0], cell[1]);
         } else {
             logger.warning("Invalid node format: " + nodeData);
         }
     }
 
+    private void handlePathData(String pathData) {
+        int[] cells = TextProtocol.parseCells(pathData, BinaryProtocol.MAX_PATH_CELLS);
+        if (cells != null) {
+            handlePath(cells);
+        } else {
+            logger.warning("Invalid path format: " + pathData);
+        }
+    }
 
-    private void cleanup() {
-        try {
-            if (clientSocket != null && !clientSocket.isClosed()) {
-                clientSocket.close();
+    // Row and column pairs of a path command; the whole path is refused when a cell is off the maze
+    private void handlePath(int[] cells) {
+        List<Node> nodes = new ArrayList<>(cells.length / 2);
+        for (int i = 0; i < cells.length; i += 2) {
+            if (!gameHandler.getMazeGen().getGrid().contains(cells[i], cells[i + 1])) {
+                logger.warning("Path cell out of maze bounds: (" + cells[i] + "," + cells[i + 1] + ")");
+                return;
             }
-        } catch (IOException e) {
-            logger.warning("Error closing socket: " + e.getMessage());
+            nodes.add(gameHandler.getMazeGen().getGrid().node(cells[i], cells[i + 1]));
         }
+        gameHandler.addNodesToPath(nodes, clientId);
     }
 
+    private void handleMove(int row, int column) {
+        if (!gameHandler.getMazeGen().getGrid().contains(row, column)) {
+            logger.warning("Node out of maze bounds: (" + row + "," + column + ")");
+            return;
+        }
+        Node node = gameHandler.getMazeGen().getGrid().node(row, column);
+        gameHandler.addNodeToPath(node, clientId);
+    }
 
 
-    public synchronized void sendNode(Node node) {
+    private void scheduleIdleCheck(long delayNanos) {
+        if (PlayerConnection.IDLE_TIMEOUT_NANOS > 0 && running) {
+            idleTimeout = TimingWheel.shared().schedule(this::checkIdle, delayNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    // Runs on the timing wheel: closes the connection or waits for the rest of the idle timeout
+    private void checkIdle() {
+        long idle = System.nanoTime() - lastActivity;
+        if (idle >= PlayerConnection.IDLE_TIMEOUT_NANOS) {
+            logger.warning("Client " + clientId + " idle for " + TimeUnit.NANOSECONDS.toSeconds(idle) + "s, closing connection");
+            cleanup();
+        } else {
+            scheduleIdleCheck(PlayerConnection.IDLE_TIMEOUT_NANOS - idle);
+        }
+    }
+
+    // Closes the socket and stops this connection's threads; safe to call more than once
+    private void cleanup() {
+        if (!closed.compareAndSet(false, true)) {
+            return;
+        }
+        running = false;
+        TimingWheel.Timeout idle = idleTimeout;
+        if (idle != null) {
+            idle.cancel();
+        }
+        ServerMetrics.get().connectionClosed(this);
+        if (gameHandler != null) {
+            gameHandler.playerDisconnected(clientId);
+        }
+        for (Thread thread : threads) {
+            if (thread != Thread.currentThread()) {
+                thread.interrupt();
+            }
+        }
         try {
-            String nodeMessage = "(" + node.getRow() + "," + node.getColumn() + ")";
-            outgoingMessages.put(nodeMessage);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            logger.warning("Failed to queue node message: " + e.getMessage());
+            if (clientSocket != null && !clientSocket.isClosed()) {
+                clientSocket.close();
+            }
+        } catch (IOException e) {
+            logger.warning("Error closing socket: " + e.getMessage());
         }
     }
 
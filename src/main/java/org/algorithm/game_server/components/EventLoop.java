@@ -0,0 +1,137 @@
+package org.algorithm.game_server.components;
+
+import org.algorithm.game_server.server.ServerImpl;
+
+import java.io.IOException;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.logging.Logger;
+
+// Single threaded selector loop. Every connection is pinned to one loop and all of its
+// I/O and buffer state is only touched from that loop's thread.
+public class EventLoop implements Runnable {
+    private final Selector selector;
+    private final Thread thread;
+    private final Logger logger;
+    // Work submitted from other threads (registrations, outbound messages)
+    private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+    // Connections with pending output, flushed once per loop iteration
+    private final Queue<NioConnection> toFlush = new ArrayDeque<>();
+    private volatile boolean running = true;
+
+    public EventLoop(String name) throws IOException {
+        this.selector = Selector.open();
+        this.thread = new Thread(this, name);
+        this.thread.setDaemon(true);
+        this.logger = Logger.getLogger(ServerImpl.class.getName());
+    }
+
+    public void start() {
+        thread.start();
+    }
+
+    public boolean inEventLoop() {
+        return Thread.currentThread() == thread;
+    }
+
+    public void execute(Runnable task) {
+        if (inEventLoop()) {
+            task.run();
+            return;
+        }
+        tasks.add(task);
+        selector.wakeup();
+    }
+
+    public void register(NioConnection connection) {
+        execute(() -> {
+            try {
+                connection.register(selector);
+            } catch (IOException e) {
+                logger.warning("Failed to register connection: " + e.getMessage());
+                connection.close();
+            }
+        });
+    }
+
+    void scheduleFlush(NioConnection connection) {
+        toFlush.add(connection);
+    }
+
+    @Override
+    public void run() {
+        while (running) {
+            try {
+                selector.select();
+                runTasks();
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    NioConnection connection = (NioConnection) key.attachment();
+                    if (!key.isValid()) {
+                        connection.close();
+                        continue;
+                    }
+                    try {
+                        if (key.isReadable()) {
+                            connection.onReadable();
+                        }
+                        if (key.isValid() && key.isWritable()) {
+                            connection.onWritable();
+                        }
+                    } catch (RuntimeException e) {
+                        // A bug or a malformed message costs its connection, not the loop's others
+                        logger.warning("Connection failed, closing it: " + e);
+                        connection.close();
+                    }
+                }
+                flushPending();
+            } catch (ClosedSelectorException e) {
+                break;
+            } catch (IOException e) {
+                logger.warning("Event loop error: " + e.getMessage());
+            }
+        }
+        closeAll();
+    }
+
+    private void closeAll() {
+        try {
+            for (SelectionKey key : selector.keys()) {
+                ((NioConnection) key.attachment()).close();
+            }
+            selector.close();
+        } catch (IOException | ClosedSelectorException e) {
+            logger.warning("Error closing event loop: " + e.getMessage());
+        }
+    }
+
+    private void runTasks() {
+        Runnable task;
+        while ((task = tasks.poll()) != null) {
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                logger.warning("Event loop task failed: " + e.getMessage());
+            }
+        }
+    }
+
+    private void flushPending() {
+        NioConnection connection;
+        while ((connection = toFlush.poll()) != null) {
+            connection.flush();
+        }
+    }
+
+    public void shutdown() {
+        running = false;
+        selector.wakeup();
+    }
+}
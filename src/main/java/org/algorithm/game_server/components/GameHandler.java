@@ -1,20 +1,23 @@
 package org.algorithm.game_server.components;
 
 import org.algorithm.components.Node;
+import org.algorithm.game_server.journal.GameJournal;
+import org.algorithm.game_server.metrics.ServerMetrics;
 import org.algorithm.game_server.server.ServerImpl;
 import org.algorithm.maze.Maze;
-import org.algorithm.maze.impl.dfs_algorithm.DfsAlgorithm;
-import org.algorithm.maze_solver.MazeSolver;
-import org.algorithm.maze_solver.impl.DijkstraAlgorithm;
+import org.algorithm.maze.codec.MazeCodec;
+import org.algorithm.maze.codec.MazeDescriptor;
+import org.algorithm.maze.codec.MazeTiles;
+import org.algorithm.maze_solver.DistanceField;
+import org.algorithm.maze_solver.PathScorer;
 
 import java.io.*;
-import java.net.Socket;
 import java.util.*;
-import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 import java.util.logging.Logger;
 
-public class GameHandler {
+public final class GameHandler {
     private final Maze mazeGen;
     private final  int nbRow;
     private final  int nbCol;
@@ -22,55 +25,235 @@ public class GameHandler {
     private final Logger logger;
     Stack<Node> firstPath;
     Stack<Node> secondPath;
-    private boolean gameOver = false;
-    private Timer turnTimer;
-    MazeSolver mazeSolver;
+    private volatile boolean gameOver = false;
+    // Pending end of the current turn on the shared timing wheel
+    private TimingWheel.Timeout turnTimeout;
+    private final byte[] mazePayload;
+    private final byte[] deflatedMazePayload;
+    private final MazeDescriptor mazeDescriptor;
+    private final MazeTiles mazeTiles;
+    private final int shortestPathLength;
     int firstPlayerScore;
-    Set<String> firstFoundWords;
-    Set<String> secondFoundWords;
+    // Incremental word scoring attached to each player path
+    PathScorer firstScorer;
+    PathScorer secondScorer;
     int secondPlayerScore;
-   public static String theme;
 
-    private static final int GAME_DURATION_SECONDS = 20000;
-    private final BlockingQueue<String> firstPlayerMessages = new LinkedBlockingQueue<>();
-    private final BlockingQueue<String> secondPlayerMessages = new LinkedBlockingQueue<>();
-    private final BlockingQueue<Node> firstPlayerNodes = new LinkedBlockingQueue<>();
-    private final BlockingQueue<Node> secondPlayerNodes = new LinkedBlockingQueue<>();
+    private static final int TURN_DURATION_MILLIS = 20000;
+
+    // Everything that can happen to a session. Connections, timers and the server only post events;
+    // the mailbox handles them one at a time, so the game state below needs no lock.
+    private sealed interface Event permits Join, Ready, Move, Path, Hint, TurnTimeout, Leave {
+    }
+
+    private record Join(int playerId, PlayerConnection connection) implements Event {
+    }
+
+    // The player has its maze
+    private record Ready(int playerId) implements Event {
+    }
+
+    private record Move(int playerId, Node node) implements Event {
+    }
+
+    // A run of moves sent in one command, applied as a whole
+    private record Path(int playerId, List<Node> nodes) implements Event {
+    }
+
+    private record Hint(int playerId) implements Event {
+    }
+
+    // turn is the number of the turn the timeout was set for, a later turn ignores it
+    private record TurnTimeout(int turn) implements Event {
+    }
+
+    private record Leave(int playerId) implements Event {
+    }
+
+    private final Mailbox<Event> mailbox;
+    private final PlayerConnection[] connections = new PlayerConnection[2];
+    // Messages for a player whose connection hasn't joined yet
+    private final List<List<Consumer<PlayerConnection>>> undelivered = List.of(new ArrayList<>(), new ArrayList<>());
+    private final boolean[] playersReady = new boolean[2];
+    private final boolean[] playersLeft = new boolean[2];
+    // Players sent something while handling the current event
+    private final boolean[] unflushed = new boolean[2];
+    private boolean started = false;
+    private int turn = 0;
+    // Where this session's events are recorded
+    private final GameJournal.Session journal;
+    // Rebuilt from a journal: no timers, no connections
+    private final boolean replaying;
     public GameHandler(int nbCol,int nbRow) {
-        this.nbRow=nbRow;
-        this.nbCol=nbCol;
-        this.mazeGen=new DfsAlgorithm(nbRow,nbCol);
-        this.mazeGen.setStartAndEnd();
-        this.mazeGen.generateMaze();
-        this.mazeGen.createLoops();
+        this(PreparedMaze.generate(nbRow, nbCol, null));
+    }
+    // Starts a session on a maze that was generated, encoded and solved ahead of time (see MazePool)
+    public GameHandler(PreparedMaze preparedMaze) {
+        this(preparedMaze, false);
+    }
+
+    // A session replayed from its journal records (see JournalReplayer), driven by the replay methods
+    public static GameHandler forReplay(PreparedMaze preparedMaze) {
+        return new GameHandler(preparedMaze, true);
+    }
+
+    private GameHandler(PreparedMaze preparedMaze, boolean replaying) {
+        this.mazeGen=preparedMaze.getMaze();
+        this.nbRow=mazeGen.getGrid().getNbRow();
+        this.nbCol=mazeGen.getGrid().getNbColumn();
+        this.mazePayload=preparedMaze.getPayload();
+        this.deflatedMazePayload=preparedMaze.getDeflatedPayload();
+        this.mazeDescriptor=preparedMaze.getDescriptor();
+        this.mazeTiles=preparedMaze.getTiles();
+        this.shortestPathLength=preparedMaze.getShortestPathLength();
         this.logger = Logger.getLogger(ServerImpl.class.getName());
         this.firstPath=new Stack<>();
         this.secondPath=new Stack<>();
-        this.firstPath.push(mazeGen.getMaze()[mazeGen.getStart().getRow()][mazeGen.getStart().getColumn()]);
-        this.secondPath.push(mazeGen.getMaze()[mazeGen.getStart().getRow()][mazeGen.getStart().getColumn()]);
-        this.mazeSolver=new DijkstraAlgorithm();
+        this.firstPath.push(mazeGen.getGrid().node(mazeGen.getStart().getRow(), mazeGen.getStart().getColumn()));
+        this.secondPath.push(mazeGen.getGrid().node(mazeGen.getStart().getRow(), mazeGen.getStart().getColumn()));
         this.firstPlayerScore=0;
         this.secondPlayerScore=0;
-        this.firstFoundWords=new HashSet<>();
-        this.secondFoundWords=new HashSet<>();
+        this.firstScorer=new PathScorer(mazeGen.getWordAutomaton());
+        this.secondScorer=new PathScorer(mazeGen.getWordAutomaton());
+        this.firstScorer.push(firstPath.peek().getValue());
+        this.secondScorer.push(secondPath.peek().getValue());
+        this.replaying=replaying;
+        this.journal=replaying ? GameJournal.Session.NONE : GameJournal.get().startSession(mazeGen.getTheme(), mazePayload);
+
+        // Last, so the handler can't be reached before the fields it reads are set
+        this.mailbox=new Mailbox<>(this::handle);
     }
-    public BlockingQueue<String> getPlayerMessageQueue(int playerId) {
-        return playerId == 0 ? firstPlayerMessages : secondPlayerMessages;
+
+    // Events posted and not handled yet, read by the metrics
+    public int getMailboxSize() {
+        return mailbox.size();
     }
 
-    public BlockingQueue<Node> getPlayerNodeQueue(int playerId) {
-        return playerId == 0 ? firstPlayerNodes : secondPlayerNodes;
+    // The connection receives this player's messages from now on, including any sent before it joined
+    public void attachConnection(int playerId, PlayerConnection connection) {
+        mailbox.post(new Join(playerId, connection));
     }
 
+    // The player received its maze; the first turn starts once both players have
+    public void playerReady(int playerId) {
+        mailbox.post(new Ready(playerId));
+    }
+
+    public void addNodeToPath(Node node, int playerId) {
+        mailbox.post(new Move(playerId, node));
+    }
+
+    // Moves along the nodes in order: all of them are applied, or none when one is not a legal step
+    public void addNodesToPath(List<Node> nodes, int playerId) {
+        mailbox.post(new Path(playerId, nodes));
+    }
+
+    public void sendHint(int playerId) {
+        mailbox.post(new Hint(playerId));
+    }
+
+    // A player's connection closed: nobody is left to take turns, so the turn timer stops
+    public void playerDisconnected(int playerId) {
+        mailbox.post(new Leave(playerId));
+    }
+
+    // Replay: the recorded events are handled at once on the caller's thread, in journal order
+
+    public void replayMove(int playerId, Node node) {
+        handle(new Move(playerId, node));
+    }
+
+    public void replayPath(int playerId, List<Node> nodes) {
+        handle(new Path(playerId, nodes));
+    }
+
+    // The recorded turn of the player starts, whether the last one was played or timed out
+    public void replayTurn(int playerId) {
+        started = true;
+        currentPlayerId = playerId;
+        startTurn();
+    }
+
+    public void replayLeave(int playerId) {
+        handle(new Leave(playerId));
+    }
+
+    public int getScore(int playerId) {
+        return playerId == 0 ? firstPlayerScore : secondPlayerScore;
+    }
+
+    private void handle(Event event) {
+        switch (event) {
+            case Join join -> onJoin(join.playerId(), join.connection());
+            case Ready ready -> onReady(ready.playerId());
+            case Move move -> onMove(move.node(), move.playerId());
+            case Path path -> onPath(path.nodes(), path.playerId());
+            case Hint hint -> onHint(hint.playerId());
+            case TurnTimeout timeout -> {
+                if (timeout.turn() == turn) {
+                    endTurn();
+                }
+            }
+            case Leave leave -> onLeave(leave.playerId());
+        }
+        // End of the event: each player's messages for it go out as one write
+        for (int playerId = 0; playerId < 2; playerId++) {
+            if (unflushed[playerId]) {
+                unflushed[playerId] = false;
+                if (connections[playerId] != null) {
+                    connections[playerId].endOfEvent();
+                }
+            }
+        }
+    }
+
+    private void onJoin(int playerId, PlayerConnection connection) {
+        connections[playerId] = connection;
+        List<Consumer<PlayerConnection>> pending = undelivered.get(playerId);
+        for (Consumer<PlayerConnection> message : pending) {
+            message.accept(connection);
+        }
+        unflushed[playerId] = !pending.isEmpty();
+        pending.clear();
+    }
+
+    private void onReady(int playerId) {
+        playersReady[playerId] = true;
+        if (playersReady[0] && playersReady[1] && !started) {
+            started = true;
+            logger.info("Both clients initialized, starting game");
+            startTurn();
+        }
+    }
 
     public String getTheme() {
-            return theme;
+            return mazeGen.getTheme();
     }
 
     public Maze getMazeGen() {
         return mazeGen;
     }
 
+    // The maze encoded once for the whole session
+    public byte[] getMazePayload() {
+        return mazePayload;
+    }
+
+    // The same payload deflated once, for the clients that ask for it
+    public byte[] getDeflatedMazePayload() {
+        return deflatedMazePayload;
+    }
+
+    // The maze in tiles, for clients that fetch it a part at a time
+    public MazeTiles getMazeTiles() {
+        return mazeTiles;
+    }
+
+    // Seed and size the clients can generate the maze from instead of downloading it, or null
+    public MazeDescriptor getMazeDescriptor() {
+        return mazeDescriptor;
+    }
+
     public int getNbRow() {
         return nbRow;
     }
@@ -87,145 +270,234 @@ public class GameHandler {
         return gameOver;
     }
 
-    public void sendMaze(Socket socket, byte[] mazeData) throws IOException {
-        String base64Data = Base64.getEncoder().encodeToString(mazeData);
-        PrintWriter out = new PrintWriter(socket.getOutputStream(), true);
-        out.println(base64Data);
+    // Sends the encoded maze as one length-prefixed binary frame
+    public void sendMaze(OutputStream out, byte[] mazeData) throws IOException {
+        MazeCodec.writeFrame(out, mazeData);
     }
 
 
 
-    public synchronized void startTurn() throws InterruptedException {
-        if (turnTimer != null) {
-            turnTimer.cancel();
+    private void startTurn() {
+        cancelTurnTimeout();
+        int scheduledTurn = ++turn;
+        journal.turn(currentPlayerId, scheduledTurn);
+        if (replaying) {
+            return;
         }
-        turnTimer = new Timer();
-        turnTimer.schedule(new TimerTask() {
-            @Override
-            public void run() {
-                try {
-                    endTurn();
-                } catch (IOException e) {
-                    logger.warning("Error ending turn: " + e.getMessage());
-                }
-            }
-        }, GAME_DURATION_SECONDS);
+        // The wheel only posts, the turn ends on the session's mailbox like every other event
+        turnTimeout = TimingWheel.shared().schedule(() -> mailbox.post(new TurnTimeout(scheduledTurn)),
+                TURN_DURATION_MILLIS, TimeUnit.MILLISECONDS);
 
-        if (currentPlayerId == 0) {
-            firstPlayerMessages.put("turn");
-            secondPlayerMessages.put("not");
-        } else {
-            secondPlayerMessages.put("turn");
-            firstPlayerMessages.put("not");
-        }
+        deliver(currentPlayerId, connection -> connection.sendTurn(true));
+        deliver(1 - currentPlayerId, connection -> connection.sendTurn(false));
     }
 
-    public synchronized void endTurn() throws IOException {
+    private void endTurn() {
         if (isGameOver()) {
-            if (turnTimer != null) {
-                turnTimer.cancel();
-                turnTimer = null;
-            }
+            cancelTurnTimeout();
             return;
         }
 
         currentPlayerId = 1-currentPlayerId;
         logger.info("Player " + currentPlayerId + " turn");
-        try {
-            startTurn();
-        } catch (InterruptedException e) {
-            throw new RuntimeException(e);
+        startTurn();
+    }
+
+
+    private void cancelTurnTimeout() {
+        if (turnTimeout != null) {
+            turnTimeout.cancel();
+            turnTimeout = null;
+        }
+    }
+
+    private void onLeave(int playerId) {
+        if (!isGameOver()) {
+            logger.info("Player " + playerId + " disconnected, ending the session");
         }
+        journal.left(playerId);
+        playersLeft[playerId] = true;
+        connections[playerId] = null;
+        undelivered.get(playerId).clear();
+        setGameOver(true);
+        cancelTurnTimeout();
+        ServerMetrics.get().sessionEnded(this);
     }
 
 
-    public synchronized void broadcastNode(int excludedClientId, Node node) throws InterruptedException {
-        if (excludedClientId == 0) {
-            secondPlayerNodes.put(node);
-            secondPlayerMessages.put("node");
-        } else {
-            firstPlayerNodes.put(node);
-            firstPlayerMessages.put("node");
+    private void broadcastNode(int excludedClientId, Node node) {
+        deliver(1 - excludedClientId, connection -> connection.sendMove(node));
+    }
+
+    // Writes to the player's connection outbound buffer, or keeps the message until the player joins
+    private void deliver(int playerId, Consumer<PlayerConnection> message) {
+        PlayerConnection connection = connections[playerId];
+        if (connection != null) {
+            message.accept(connection);
+            unflushed[playerId] = true;
+        } else if (!playersLeft[playerId] && !replaying) {
+            undelivered.get(playerId).add(message);
         }
     }
 
 
-    public synchronized void addNodeToPath(Node node, int playerId) throws InterruptedException {
+    private void onMove(Node node, int playerId) {
         Stack<Node> currentPath = (playerId == 0) ? firstPath : secondPath;
-        Node previousNode = currentPath.peek();
-        if (previousNode.getRow() == node.getRow() && previousNode.getColumn() == node.getColumn()) {
-            currentPath.pop();
-        } else {
-            currentPath.push(node);
+        PathScorer scorer = (playerId == 0) ? firstScorer : secondScorer;
+        // Same rules as a path: a legal step, and never a step back off the start
+        if (!isValidPath(currentPath, List.of(node))) {
+            logger.warning("Player " + playerId + " sent an illegal move to " + node.getRow() + "," + node.getColumn() + ", ignored");
+            return;
         }
+        journal.move(playerId, node);
+        long scoringStarted = System.nanoTime();
+        int gained = applyStep(currentPath, scorer, node);
+        ServerMetrics metrics = ServerMetrics.get();
+        metrics.moveScoring.recordSince(scoringStarted);
+        metrics.moves.increment();
 
-        if(playerId == 0) {
-            firstPlayerScore = mazeSolver.updateScore(firstPath.stream().toList(), mazeGen, firstFoundWords, firstPlayerScore);
-            sendScores(firstPlayerMessages,secondPlayerMessages,firstPlayerScore);
-        } else if (playerId == 1) {
-            secondPlayerScore = mazeSolver.updateScore(secondPath.stream().toList(), mazeGen, secondFoundWords, secondPlayerScore);
-            sendScores(secondPlayerMessages,firstPlayerMessages,secondPlayerScore);
-        }
+        addToScore(playerId, gained);
         logger.info("Player " + playerId + " moved to " + node.getRow() + "," + node.getColumn());
         logger.info("Player 0 score: " + firstPlayerScore);
         logger.info("Player 1 score: " + secondPlayerScore);
-        try {
-            broadcastNode(playerId, node);
-        } catch (InterruptedException e) {
-            throw new RuntimeException(e);
+        broadcastNode(playerId, node);
+
+        if (isEnd(node)) {
+            handleGameEnd();
+        }
+    }
+
+    // Same steps as onMove, with one score update and one broadcast for the whole run. Steps after
+    // the end cell are dropped, the game is over once it is reached.
+    private void onPath(List<Node> nodes, int playerId) {
+        Stack<Node> currentPath = (playerId == 0) ? firstPath : secondPath;
+        PathScorer scorer = (playerId == 0) ? firstScorer : secondScorer;
+        if (!isValidPath(currentPath, nodes)) {
+            logger.warning("Player " + playerId + " sent an illegal path of " + nodes.size() + " cells, ignored");
+            return;
         }
+        journal.path(playerId, nodes);
+        long scoringStarted = System.nanoTime();
+        int gained = 0;
+        int applied = 0;
+        boolean reachedEnd = false;
+        while (applied < nodes.size() && !reachedEnd) {
+            Node node = nodes.get(applied++);
+            gained += applyStep(currentPath, scorer, node);
+            reachedEnd = isEnd(node);
+        }
+        ServerMetrics metrics = ServerMetrics.get();
+        metrics.moveScoring.recordSince(scoringStarted);
+        metrics.moves.add(applied);
+
+        addToScore(playerId, gained);
+        logger.info("Player " + playerId + " moved " + applied + " cells to " + currentPath.peek().getRow() + "," + currentPath.peek().getColumn());
+        List<Node> moved = applied == nodes.size() ? nodes : nodes.subList(0, applied);
+        deliver(1 - playerId, connection -> connection.sendPath(moved));
 
-        if (node.getRow() == mazeGen.getEnd().getRow() &&
-                node.getColumn() == mazeGen.getEnd().getColumn()) {
+        if (reachedEnd) {
             handleGameEnd();
         }
     }
 
-    private void handleGameEnd() throws InterruptedException {
+    // Moving onto the current cell steps back to the previous one, any other cell is a step forward
+    // and returns the points of the words it completes
+    private int applyStep(Stack<Node> currentPath, PathScorer scorer, Node node) {
+        Node previousNode = currentPath.peek();
+        if (previousNode.getRow() == node.getRow() && previousNode.getColumn() == node.getColumn()) {
+            currentPath.pop();
+            scorer.pop();
+            return 0;
+        }
+        currentPath.push(node);
+        return scorer.push(node.getValue());
+    }
+
+    // Replays the run on the cells it would visit, without touching the path: every forward step must
+    // be a legal move and no step back may leave the start
+    private boolean isValidPath(Stack<Node> currentPath, List<Node> nodes) {
+        int depth = currentPath.size();
+        Deque<Node> pushed = new ArrayDeque<>();
+        for (Node node : nodes) {
+            Node current = pushed.isEmpty() ? currentPath.get(depth - 1) : pushed.peek();
+            if (current.getRow() == node.getRow() && current.getColumn() == node.getColumn()) {
+                if (!pushed.isEmpty()) {
+                    pushed.pop();
+                } else if (--depth == 0) {
+                    return false;
+                }
+            } else if (mazeGen.getGrid().canMove(current.getRow(), current.getColumn(),
+                    node.getRow() - current.getRow(), node.getColumn() - current.getColumn())) {
+                pushed.push(node);
+            } else {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean isEnd(Node node) {
+        return node.getRow() == mazeGen.getEnd().getRow() && node.getColumn() == mazeGen.getEnd().getColumn();
+    }
+
+    private void addToScore(int playerId, int gained) {
+        if(playerId == 0) {
+            firstPlayerScore += gained;
+            sendScores(0,firstPlayerScore);
+        } else if (playerId == 1) {
+            secondPlayerScore += gained;
+            sendScores(1,secondPlayerScore);
+        }
+    }
+
+    private void handleGameEnd() {
         int winningPlayerId;
         setGameOver(true);
-        if (turnTimer != null) {
-            turnTimer.cancel();
-            turnTimer = null;
-        }
-        List<Node> shortestPath = mazeSolver.getShortestPath(mazeGen.getMaze(),nbRow,nbCol,mazeGen.getStart(),mazeGen.getEnd());
-        List<Node> firstPlayerPath=firstPath.stream().toList();
-        List<Node> secondPlayerPath=secondPath.stream().toList();
+        ServerMetrics.get().sessionEnded(this);
+        cancelTurnTimeout();
         boolean firstReachedLastNode=firstPath.peek().getRow()==mazeGen.getEnd().getRow() && firstPath.peek().getColumn()==mazeGen.getEnd().getColumn();
         boolean secondReachedLastNode=secondPath.peek().getRow()==mazeGen.getEnd().getRow() && secondPath.peek().getColumn()==mazeGen.getEnd().getColumn();
             if(firstReachedLastNode ){
                 firstPlayerScore+=5;
-                if(shortestPath.size()==firstPlayerPath.size()){
+                if(shortestPathLength==firstPath.size()){
                     firstPlayerScore+=10;
                 }
-                sendScores(firstPlayerMessages,secondPlayerMessages,firstPlayerScore);
+                sendScores(0,firstPlayerScore);
             }
             if(secondReachedLastNode){
                 secondPlayerScore+=5;
-                if(shortestPath.size()==secondPlayerPath.size()){
+                if(shortestPathLength==secondPath.size()){
                     secondPlayerScore+=10;
 
                 }
-                sendScores(secondPlayerMessages,firstPlayerMessages,secondPlayerScore);
+                sendScores(1,secondPlayerScore);
             }
             winningPlayerId=firstPlayerScore>secondPlayerScore?0:1;
             logger.info("Player " + winningPlayerId + " won with score : "+ (Math.max(firstPlayerScore, secondPlayerScore)));
-        try {
-           firstPlayerMessages.put("gameOver");
-           secondPlayerMessages.put("gameOver");
-           logger.info("Game Over: " + gameOver);
-        } catch (InterruptedException e) {
-            logger.warning("Error sending game end messages: " + e.getMessage());
-        }
+        journal.gameOver(firstPlayerScore, secondPlayerScore);
+        deliver(0, PlayerConnection::sendGameOver);
+        deliver(1, PlayerConnection::sendGameOver);
+        logger.info("Game Over: " + gameOver);
     }
 
 
-    synchronized  void sendScores(BlockingQueue<String> player,BlockingQueue<String> opponent,int playerScore) throws InterruptedException {
-        player.put("score");
-        player.put(String.valueOf(playerScore));
-        opponent.put("otherScore");
-        opponent.put(String.valueOf(playerScore));
+    // Answers a hint request from the maze's distance field: the number of moves left
+    // from the end of the player's path (-1 when the end can't be reached), then the best next cell,
+    // or the current cell when there is no move to make
+    private void onHint(int playerId) {
+        Node current = (playerId == 0 ? firstPath : secondPath).peek();
+        DistanceField field = mazeGen.getDistanceField();
+        int distance = field.getDistance(current.getRow(), current.getColumn());
+        Node next = field.getNextStep(current.getRow(), current.getColumn());
+        Node hinted = next == null ? current : next;
+        deliver(playerId, connection -> connection.sendHint(distance, hinted));
+    }
+
+    private void sendScores(int playerId,int playerScore) {
+        journal.score(playerId, playerScore);
+        deliver(playerId, connection -> connection.sendScore(false, playerScore));
+        deliver(1 - playerId, connection -> connection.sendScore(true, playerScore));
     }
 
 
-}
\ No newline at end of file
+}
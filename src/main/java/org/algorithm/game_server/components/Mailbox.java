@@ -0,0 +1,79 @@
+package org.algorithm.game_server.components;
+
+import org.algorithm.game_server.server.ServerImpl;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+// Events for one actor, handled one at a time and in order on a shared executor. Posting never
+// blocks; an idle mailbox holds no thread, a busy one holds one executor thread for at most a batch.
+public class Mailbox<E> {
+    // Events handled before the thread is handed back, so one busy session can't starve the others
+    private static final int MAX_BATCH = 64;
+
+    private static final class Shared {
+        static final ExecutorService EXECUTOR = newExecutor();
+
+        private static ExecutorService newExecutor() {
+            AtomicInteger threadId = new AtomicInteger();
+            return Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), task -> {
+                Thread thread = new Thread(task, "maze-session-" + threadId.getAndIncrement());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    private final Queue<E> events = new ConcurrentLinkedQueue<>();
+    // Events posted and not yet handled; the post that moves it from 0 schedules the drain
+    private final AtomicInteger size = new AtomicInteger();
+    private final Executor executor;
+    private final Consumer<E> handler;
+    private final Logger logger;
+
+    public Mailbox(Consumer<E> handler) {
+        this(Shared.EXECUTOR, handler);
+    }
+
+    public Mailbox(Executor executor, Consumer<E> handler) {
+        this.executor = executor;
+        this.handler = handler;
+        this.logger = Logger.getLogger(ServerImpl.class.getName());
+    }
+
+    public void post(E event) {
+        events.add(event);
+        if (size.getAndIncrement() == 0) {
+            executor.execute(this::drain);
+        }
+    }
+
+    public int size() {
+        return size.get();
+    }
+
+    private void drain() {
+        for (int handled = 0; handled < MAX_BATCH; handled++) {
+            E event = events.poll();
+            try {
+                handler.accept(event);
+            } catch (Throwable e) {
+                // Errors too: one thrown out of here would skip the decrement, and with size never
+                // back to 0 no post would schedule a drain again, the session would hang
+                logger.log(Level.WARNING, "Event " + event + " failed", e);
+            }
+            if (size.decrementAndGet() == 0) {
+                return;
+            }
+        }
+        // Events are left: continue later, behind the other mailboxes
+        executor.execute(this::drain);
+    }
+}
@@ -0,0 +1,161 @@
+package org.algorithm.game_server.components;
+
+import org.algorithm.game_server.server.ServerImpl;
+
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+
+// Bounded pools of prepared mazes, one per (size, theme), kept topped up by background workers.
+// Taking a maze is a queue poll; only a miss (pool drained faster than it refills) pays for
+// generation on the caller's thread.
+public class MazePool {
+    private static final int DEFAULT_CAPACITY = 4;
+
+    // A null theme means any theme, each maze then picks its own
+    private record Key(int nbRow, int nbCol, String theme) {
+    }
+
+    private static class Slot {
+        final BlockingQueue<PreparedMaze> ready;
+        // Refills submitted but not yet in the queue
+        final AtomicInteger pending = new AtomicInteger();
+
+        Slot(int capacity) {
+            this.ready = new ArrayBlockingQueue<>(capacity);
+        }
+    }
+
+    private final int capacity;
+    private final Map<Key, Slot> slots = new ConcurrentHashMap<>();
+    private final ExecutorService workers;
+    private final Logger logger;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder refills = new LongAdder();
+    // Time from a refill being requested to its maze being available, in nanoseconds
+    private final LongAdder refillNanos = new LongAdder();
+    private final AtomicLong maxRefillNanos = new AtomicLong();
+
+    public MazePool() {
+        this(DEFAULT_CAPACITY, Math.max(1, Runtime.getRuntime().availableProcessors() / 2));
+    }
+
+    public MazePool(int capacity, int nbWorkers) {
+        this.capacity = capacity;
+        AtomicInteger workerId = new AtomicInteger();
+        // Generation is CPU bound, so a small fixed set of low priority platform threads
+        this.workers = Executors.newFixedThreadPool(nbWorkers, task -> {
+            Thread thread = new Thread(task, "maze-pool-" + workerId.getAndIncrement());
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+        this.logger = Logger.getLogger(ServerImpl.class.getName());
+    }
+
+    // Fills the pool for this size and theme in the background
+    public void prewarm(int nbRow, int nbCol, String theme) {
+        refill(new Key(nbRow, nbCol, theme));
+    }
+
+    public PreparedMaze take(int nbRow, int nbCol, String theme) {
+        Key key = new Key(nbRow, nbCol, theme);
+        PreparedMaze prepared = slot(key).ready.poll();
+        if (prepared != null) {
+            hits.increment();
+        } else {
+            misses.increment();
+            prepared = PreparedMaze.generate(nbRow, nbCol, theme);
+        }
+        refill(key);
+        return prepared;
+    }
+
+    private Slot slot(Key key) {
+        return slots.computeIfAbsent(key, k -> new Slot(capacity));
+    }
+
+    // Submits one generation task per missing maze
+    private void refill(Key key) {
+        Slot slot = slot(key);
+        while (slot.ready.size() + slot.pending.get() < capacity) {
+            slot.pending.incrementAndGet();
+            long requested = System.nanoTime();
+            try {
+                workers.execute(() -> {
+                    try {
+                        PreparedMaze prepared = PreparedMaze.generate(key.nbRow(), key.nbCol(), key.theme());
+                        slot.ready.offer(prepared);
+                        long elapsed = System.nanoTime() - requested;
+                        refills.increment();
+                        refillNanos.add(elapsed);
+                        maxRefillNanos.accumulateAndGet(elapsed, Math::max);
+                    } catch (RuntimeException e) {
+                        logger.warning("Maze generation failed: " + e.getMessage());
+                    } finally {
+                        slot.pending.decrementAndGet();
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                slot.pending.decrementAndGet();
+                return;
+            }
+        }
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public double getHitRate() {
+        long hit = hits.sum();
+        long total = hit + misses.sum();
+        return total == 0 ? 1.0 : (double) hit / total;
+    }
+
+    public long getRefills() {
+        return refills.sum();
+    }
+
+    public double getAverageRefillMillis() {
+        long count = refills.sum();
+        return count == 0 ? 0 : refillNanos.sum() / 1e6 / count;
+    }
+
+    public double getMaxRefillMillis() {
+        return maxRefillNanos.get() / 1e6;
+    }
+
+    // Mazes ready to be served, over every size and theme
+    public int getReadyCount() {
+        int ready = 0;
+        for (Slot slot : slots.values()) {
+            ready += slot.ready.size();
+        }
+        return ready;
+    }
+
+    public String stats() {
+        return String.format("hits=%d misses=%d hitRate=%.2f ready=%d refills=%d avgRefill=%.1fms maxRefill=%.1fms",
+                getHits(), getMisses(), getHitRate(), getReadyCount(), getRefills(),
+                getAverageRefillMillis(), getMaxRefillMillis());
+    }
+
+    public void shutdown() {
+        workers.shutdownNow();
+    }
+}
@@ -0,0 +1,459 @@
+package org.algorithm.game_server.components;
+
+import org.algorithm.components.Node;
+import org.algorithm.game_server.metrics.ServerMetrics;
+import org.algorithm.game_server.protocol.BinaryProtocol;
+import org.algorithm.game_server.protocol.TextProtocol;
+import org.algorithm.game_server.server.ServerImpl;
+import org.algorithm.maze.codec.MazeDescriptor;
+
+import java.io.IOException;
+import java.net.ProtocolException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+// Non-blocking counterpart of ClientHandler. Speaks the same protocols, but is driven by
+// its EventLoop: reads are parsed straight out of the connection's read buffer and GameHandler
+// writes land in the connection's outbound buffers.
+public class NioConnection implements PlayerConnection {
+    private static final int READ_BUFFER_SIZE = 4096;
+
+    private final SocketChannel channel;
+    private final EventLoop loop;
+    private final Logger logger;
+    private final ByteBuffer readBuffer = ByteBuffer.allocate(READ_BUFFER_SIZE);
+    private final Deque<ByteBuffer> pendingWrites = new ArrayDeque<>();
+    private SelectionKey key;
+    private GameHandler gameHandler;
+    private int clientId;
+    private boolean awaitingNodeData = false;
+    private boolean awaitingPathData = false;
+    private boolean awaitingTileData = false;
+    // The first byte read picks the protocol
+    private boolean negotiated = false;
+    private volatile boolean binary = false;
+    private boolean greeted = false;
+    private boolean flushScheduled = false;
+    private boolean closed = false;
+    // Last time anything was read from the client, heartbeats included (System.nanoTime())
+    private long lastActivity = System.nanoTime();
+    // Next idle check on the shared timing wheel
+    private TimingWheel.Timeout idleTimeout;
+
+    public NioConnection(SocketChannel channel, EventLoop loop) {
+        this.channel = channel;
+        this.loop = loop;
+        this.logger = Logger.getLogger(ServerImpl.class.getName());
+        ServerMetrics.get().nioConnectionOpened();
+    }
+
+    public SocketChannel getChannel() {
+        return channel;
+    }
+
+    // Called on the loop thread. Nothing is read until the connection joins a game.
+    void register(Selector selector) throws IOException {
+        key = channel.register(selector, 0, this);
+    }
+
+    // Binds the connection to its game and starts reading commands
+    public void joinGame(GameHandler gameHandler, int clientId) {
+        loop.execute(() -> {
+            this.gameHandler = gameHandler;
+            this.clientId = clientId;
+            gameHandler.attachConnection(clientId, this);
+            if (key != null && key.isValid()) {
+                key.interestOps(key.interestOps() | SelectionKey.OP_READ);
+            }
+            lastActivity = System.nanoTime();
+            scheduleIdleCheck(IDLE_TIMEOUT_NANOS);
+        });
+    }
+
+    // The check is handed back to the loop thread, which owns the connection state
+    private void scheduleIdleCheck(long delayNanos) {
+        if (IDLE_TIMEOUT_NANOS > 0 && !closed) {
+            idleTimeout = TimingWheel.shared().schedule(() -> loop.execute(this::checkIdle), delayNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void checkIdle() {
+        if (closed) {
+            return;
+        }
+        long idle = System.nanoTime() - lastActivity;
+        if (idle >= IDLE_TIMEOUT_NANOS) {
+            logger.warning("Client " + clientId + " idle for " + TimeUnit.NANOSECONDS.toSeconds(idle) + "s, closing connection");
+            close();
+        } else {
+            scheduleIdleCheck(IDLE_TIMEOUT_NANOS - idle);
+        }
+    }
+
+    void onReadable() {
+        int read;
+        try {
+            read = channel.read(readBuffer);
+        } catch (IOException e) {
+            logger.warning("Connection error: " + e.getMessage());
+            close();
+            return;
+        }
+        if (read < 0) {
+            close();
+            return;
+        }
+        lastActivity = System.nanoTime();
+        readBuffer.flip();
+        if (!negotiated && readBuffer.hasRemaining()) {
+            negotiated = true;
+            binary = BinaryProtocol.isBinaryStart(readBuffer.get(readBuffer.position()));
+        }
+        if (binary) {
+            readFrames();
+            return;
+        }
+        int lineStart = readBuffer.position();
+        for (int i = lineStart; i < readBuffer.limit(); i++) {
+            if (readBuffer.get(i) == '\n') {
+                int lineEnd = i > lineStart && readBuffer.get(i - 1) == '\r' ? i - 1 : i;
+                handleLine(new String(readBuffer.array(), lineStart, lineEnd - lineStart, StandardCharsets.US_ASCII));
+                lineStart = i + 1;
+                if (closed) {
+                    return;
+                }
+            }
+        }
+        readBuffer.position(lineStart);
+        readBuffer.compact();
+        if (!readBuffer.hasRemaining()) {
+            logger.warning("Line too long from client " + clientId + ", closing connection");
+            close();
+        }
+    }
+
+    // Handles every complete frame in the read buffer, in place; a partial one waits for more bytes
+    private void readFrames() {
+        try {
+            int size;
+            while ((size = BinaryProtocol.frameSize(readBuffer, BinaryProtocol.MAX_CLIENT_FRAME)) > 0) {
+                int frameStart = readBuffer.position();
+                handleFrame();
+                if (closed) {
+                    return;
+                }
+                readBuffer.position(frameStart + size);
+            }
+        } catch (ProtocolException e) {
+            logger.warning("Protocol error from client " + clientId + ": " + e.getMessage());
+            close();
+            return;
+        }
+        readBuffer.compact();
+    }
+
+    private void handleFrame() {
+        if (!greeted) {
+            if (BinaryProtocol.helloVersion(readBuffer) < 1) {
+                logger.warning("Client " + clientId + " did not start with a HELLO frame, closing connection");
+                close();
+                return;
+            }
+            greeted = true;
+            enqueue(BinaryProtocol.hello());
+            return;
+        }
+        switch (BinaryProtocol.type(readBuffer)) {
+            case BinaryProtocol.MAZE:
+                byte[] payload = gameHandler.getMazePayload();
+                enqueue(BinaryProtocol.mazeHeader(payload.length));
+                // The session's payload is shared, not copied
+                enqueue(ByteBuffer.wrap(payload).asReadOnlyBuffer());
+                gameHandler.playerReady(clientId);
+                break;
+            case BinaryProtocol.DEFLATED_MAZE:
+                byte[] deflated = gameHandler.getDeflatedMazePayload();
+                enqueue(BinaryProtocol.mazeHeader(BinaryProtocol.DEFLATED_MAZE, deflated.length));
+                enqueue(ByteBuffer.wrap(deflated).asReadOnlyBuffer());
+                gameHandler.playerReady(clientId);
+                break;
+            case BinaryProtocol.DESCRIPTOR:
+                enqueue(BinaryProtocol.descriptor(gameHandler.getMazeDescriptor()));
+                if (gameHandler.getMazeDescriptor() != null) {
+                    gameHandler.playerReady(clientId);
+                }
+                break;
+            case BinaryProtocol.TILED_MAZE:
+                enqueue(BinaryProtocol.tiledMaze(gameHandler.getMazeGen()));
+                break;
+            case BinaryProtocol.READY:
+                gameHandler.playerReady(clientId);
+                break;
+            case BinaryProtocol.TILE:
+                if (BinaryProtocol.bodyLength(readBuffer) != 2 * Integer.BYTES) {
+                    logger.warning("Invalid tile frame from client " + clientId);
+                    break;
+                }
+                int tileRow = BinaryProtocol.bodyInt(readBuffer, 0);
+                int tileColumn = BinaryProtocol.bodyInt(readBuffer, 1);
+                if (!gameHandler.getMazeTiles().contains(tileRow, tileColumn)) {
+                    logger.warning("Tile out of maze bounds: (" + tileRow + "," + tileColumn + ")");
+                    break;
+                }
+                // Cached tiles are shared by every request, not copied
+                byte[] tile = gameHandler.getMazeTiles().tile(tileRow, tileColumn);
+                enqueue(BinaryProtocol.mazeHeader(BinaryProtocol.TILE, tile.length));
+                enqueue(ByteBuffer.wrap(tile).asReadOnlyBuffer());
+                break;
+            case BinaryProtocol.THEME:
+                enqueue(BinaryProtocol.theme(gameHandler.getTheme()));
+                break;
+            case BinaryProtocol.MOVE:
+                if (BinaryProtocol.bodyLength(readBuffer) != 2 * Integer.BYTES) {
+                    logger.warning("Invalid move frame from client " + clientId);
+                    break;
+                }
+                handleMove(BinaryProtocol.bodyInt(readBuffer, 0), BinaryProtocol.bodyInt(readBuffer, 1));
+                break;
+            case BinaryProtocol.PATH:
+                int nbCells = BinaryProtocol.pathCells(readBuffer);
+                if (nbCells < 0) {
+                    logger.warning("Invalid path frame from client " + clientId);
+                    break;
+                }
+                int[] cells = new int[2 * nbCells];
+                for (int i = 0; i < cells.length; i++) {
+                    cells[i] = BinaryProtocol.bodyInt(readBuffer, i);
+                }
+                handlePath(cells);
+                break;
+            case BinaryProtocol.HINT:
+                gameHandler.sendHint(clientId);
+                break;
+            case BinaryProtocol.HEARTBEAT:
+                break;
+            default:
+                logger.warning("Unknown frame type received: " + BinaryProtocol.type(readBuffer));
+        }
+    }
+
+    private void handleLine(String inputLine) {
+        if (awaitingNodeData) {
+            awaitingNodeData = false;
+            handleNodeData(inputLine);
+            return;
+        }
+        if (awaitingPathData) {
+            awaitingPathData = false;
+            handlePathData(inputLine);
+            return;
+        }
+        if (awaitingTileData) {
+            awaitingTileData = false;
+            int[] tile = TextProtocol.parseCells(inputLine, 1);
+            if (tile == null) {
+                logger.warning("Invalid tile format from client " + clientId);
+            } else if (!gameHandler.getMazeTiles().contains(tile[0], tile[1])) {
+                logger.warning("Tile out of maze bounds: (" + tile[0] + "," + tile[1] + ")");
+            } else {
+                sendFrame(gameHandler.getMazeTiles().tile(tile[0], tile[1]));
+            }
+            return;
+        }
+        switch (inputLine) {
+            case "row":
+                send(String.valueOf(gameHandler.getNbRow()));
+                break;
+            case "column":
+                send(String.valueOf(gameHandler.getNbCol()));
+                break;
+            case "theme":
+                send(gameHandler.getTheme());
+                break;
+            case "maze":
+                sendFrame(gameHandler.getMazePayload());
+                gameHandler.playerReady(clientId);
+                break;
+            case "deflated-maze":
+                sendFrame(gameHandler.getDeflatedMazePayload());
+                gameHandler.playerReady(clientId);
+                break;
+            case "tiles":
+                // The client fetches the maze a tile at a time and says "ready" once it can play
+                send(TextProtocol.tiledMaze(gameHandler.getMazeGen()));
+                break;
+            case "ready":
+                gameHandler.playerReady(clientId);
+                break;
+            case "tile":
+                awaitingTileData = true;
+                break;
+            case "seed":
+                // The descriptor stands for the maze; "none" and the client asks for the maze
+                MazeDescriptor descriptor = gameHandler.getMazeDescriptor();
+                send(descriptor == null ? "none" : descriptor.toString());
+                if (descriptor != null) {
+                    gameHandler.playerReady(clientId);
+                }
+                break;
+            case "start":
+                sendNode(gameHandler.getMazeGen().getStart());
+                break;
+            case "end":
+                sendNode(gameHandler.getMazeGen().getEnd());
+                break;
+            case "heartbeat":
+                break;
+            case "hint":
+                gameHandler.sendHint(clientId);
+                break;
+            case "node":
+                awaitingNodeData = true;
+                break;
+            case "path":
+                awaitingPathData = true;
+                break;
+            default:
+                logger.warning("Unknown message received: " + inputLine);
+        }
+    }
+
+    private void handleNodeData(String nodeData) {
+        int[] cell = TextProtocol.parseCells(nodeData, 1);
+        if (cell != null) {
+            handleMove(cell[0], cell[1]);
+        } else {
+            logger.warning("Invalid node format: " + nodeData);
+        }
+    }
+
+    private void handlePathData(String pathData) {
+        int[] cells = TextProtocol.parseCells(pathData, BinaryProtocol.MAX_PATH_CELLS);
+        if (cells != null) {
+            handlePath(cells);
+        } else {
+            logger.warning("Invalid path format: " + pathData);
+        }
+    }
+
+    // Row and column pairs of a path command; the whole path is refused when a cell is off the maze
+    private void handlePath(int[] cells) {
+        List<Node> nodes = new ArrayList<>(cells.length / 2);
+        for (int i = 0; i < cells.length; i += 2) {
+            if (!gameHandler.getMazeGen().getGrid().contains(cells[i], cells[i + 1])) {
+                logger.warning("Path cell out of maze bounds: (" + cells[i] + "," + cells[i + 1] + ")");
+                return;
+            }
+            nodes.add(gameHandler.getMazeGen().getGrid().node(cells[i], cells[i + 1]));
+        }
+        gameHandler.addNodesToPath(nodes, clientId);
+    }
+
+    private void handleMove(int row, int column) {
+        if (!gameHandler.getMazeGen().getGrid().contains(row, column)) {
+            logger.warning("Node out of maze bounds: (" + row + "," + column + ")");
+            return;
+        }
+        Node node = gameHandler.getMazeGen().getGrid().node(row, column);
+        gameHandler.addNodeToPath(node, clientId);
+    }
+
+    @Override
+    public void send(String message) {
+        ByteBuffer line = StandardCharsets.UTF_8.encode(message + "\n");
+        loop.execute(() -> enqueue(line));
+    }
+
+    @Override
+    public void send(ByteBuffer frame) {
+        loop.execute(() -> enqueue(frame));
+    }
+
+    @Override
+    public boolean isBinaryProtocol() {
+        return binary;
+    }
+
+    // Length-prefixed frame; the payload is written from the caller's array, which is shared, not copied
+    public void sendFrame(byte[] payload) {
+        ByteBuffer length = ByteBuffer.allocate(Integer.BYTES).putInt(payload.length).flip();
+        ByteBuffer body = ByteBuffer.wrap(payload).asReadOnlyBuffer();
+        loop.execute(() -> {
+            enqueue(length);
+            enqueue(body);
+        });
+    }
+
+    private void enqueue(ByteBuffer buffer) {
+        if (closed) {
+            return;
+        }
+        pendingWrites.add(buffer);
+        if (!flushScheduled) {
+            flushScheduled = true;
+            loop.scheduleFlush(this);
+        }
+    }
+
+    void onWritable() {
+        flush();
+    }
+
+    // Writes as much pending output as the socket accepts, in one gathering write
+    void flush() {
+        flushScheduled = false;
+        if (closed || key == null) {
+            return;
+        }
+        try {
+            if (!pendingWrites.isEmpty()) {
+                long written = channel.write(pendingWrites.toArray(new ByteBuffer[0]));
+                ServerMetrics.get().bytesSent.add(written);
+                while (!pendingWrites.isEmpty() && !pendingWrites.peekFirst().hasRemaining()) {
+                    pendingWrites.pollFirst();
+                }
+            }
+            if (pendingWrites.isEmpty()) {
+                key.interestOps(key.interestOps() & ~SelectionKey.OP_WRITE);
+            } else {
+                // Socket buffer is full, wait until the channel is writable again
+                key.interestOps(key.interestOps() | SelectionKey.OP_WRITE);
+            }
+        } catch (IOException e) {
+            logger.warning("Failed to send message to client " + clientId + ": " + e.getMessage());
+            close();
+        }
+    }
+
+    void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        ServerMetrics.get().nioConnectionClosed();
+        if (idleTimeout != null) {
+            idleTimeout.cancel();
+        }
+        if (gameHandler != null) {
+            gameHandler.playerDisconnected(clientId);
+        }
+        pendingWrites.clear();
+        if (key != null) {
+            key.cancel();
+        }
+        try {
+            channel.close();
+        } catch (IOException e) {
+            logger.warning("Error closing socket: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package org.algorithm.game_server.components;
+
+import org.algorithm.components.Node;
+import org.algorithm.game_server.protocol.BinaryProtocol;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Outbound side of a player connection that GameHandler can write to directly. The game messages
+// below are written in the protocol the client negotiated, the text one unless it said otherwise.
+public interface PlayerConnection {
+    // A player that sends nothing, not even a heartbeat, for this long is disconnected.
+    // Seconds in the maze.idle.timeout system property, 0 turns idle detection off.
+    long IDLE_TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(Long.getLong("maze.idle.timeout", 120));
+
+    // Sends one line of the text protocol, safe to call from any thread
+    void send(String message);
+
+    // Sends one whole frame of the binary protocol, safe to call from any thread
+    void send(ByteBuffer frame);
+
+    // True once the client opened the connection with a binary HELLO
+    default boolean isBinaryProtocol() {
+        return false;
+    }
+
+    // Marks the end of an event's messages: what was sent since the previous end can go out together.
+    // Connections that already batch their writes can ignore it.
+    default void endOfEvent() {
+    }
+
+    default void sendNode(Node node) {
+        send("(" + node.getRow() + "," + node.getColumn() + ")");
+    }
+
+    default void sendTurn(boolean yours) {
+        if (isBinaryProtocol()) {
+            send(BinaryProtocol.turn(yours));
+        } else {
+            send(yours ? "turn" : "not");
+        }
+    }
+
+    // The player's own score, or its opponent's
+    default void sendScore(boolean opponent, int score) {
+        if (isBinaryProtocol()) {
+            send(BinaryProtocol.score(opponent, score));
+        } else {
+            send(opponent ? "otherScore" : "score");
+            send(String.valueOf(score));
+        }
+    }
+
+    // The opponent moved to the node
+    default void sendMove(Node node) {
+        if (isBinaryProtocol()) {
+            send(BinaryProtocol.move(node.getRow(), node.getColumn()));
+        } else {
+            send("node");
+            sendNode(node);
+        }
+    }
+
+    // The opponent moved along these cells, in order. Text clients get one node message per cell,
+    // so clients that don't know about paths still follow the game.
+    default void sendPath(List<Node> cells) {
+        if (isBinaryProtocol()) {
+            send(BinaryProtocol.path(cells));
+        } else {
+            for (Node cell : cells) {
+                sendMove(cell);
+            }
+        }
+    }
+
+    default void sendGameOver() {
+        if (isBinaryProtocol()) {
+            send(BinaryProtocol.gameOver());
+        } else {
+            send("gameOver");
+        }
+    }
+
+    default void sendHint(int distance, Node next) {
+        if (isBinaryProtocol()) {
+            send(BinaryProtocol.hint(distance, next.getRow(), next.getColumn()));
+        } else {
+            send("hint");
+            send(String.valueOf(distance));
+            sendNode(next);
+        }
+    }
+}
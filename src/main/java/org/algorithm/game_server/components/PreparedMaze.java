@@ -0,0 +1,96 @@
+package org.algorithm.game_server.components;
+
+import org.algorithm.game_server.metrics.ServerMetrics;
+import org.algorithm.maze.Maze;
+import org.algorithm.maze.MazeGenerator;
+import org.algorithm.maze.codec.MazeCodec;
+import org.algorithm.maze.codec.MazeDescriptor;
+import org.algorithm.maze.codec.MazeTiles;
+import org.algorithm.maze.impl.dfs_algorithm.DfsAlgorithm;
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+
+// A maze that is ready to be served: generated, encoded once and solved once.
+// Nothing touches the maze after preparation, so it can be handed to any session thread.
+public class PreparedMaze {
+    private final Maze maze;
+    private final byte[] payload;
+    // The payload deflated, for clients that ask for it; compressed here once, not per request
+    private final byte[] deflatedPayload;
+    // Size of the shortest start-to-end path, counted in nodes like the player paths
+    private final int shortestPathLength;
+    // How a client can generate the same maze itself, null when only the payload describes it
+    private final MazeDescriptor descriptor;
+    // Tiles of the maze, encoded when first asked for
+    private final MazeTiles tiles;
+
+    private PreparedMaze(Maze maze, byte[] payload, MazeDescriptor descriptor) {
+        this.maze = maze;
+        this.payload = payload;
+        this.deflatedPayload = MazeCodec.deflate(payload);
+        this.descriptor = descriptor;
+        this.tiles = new MazeTiles(maze.getGrid());
+        // The distance field is built here, off the session's critical path, and then answers
+        // both the end of game bonus and the players' hints
+        this.shortestPathLength = maze.getDistanceField().getPathLength(maze.getStart().getRow(), maze.getStart().getColumn());
+    }
+
+    // Generates a game maze the way GameHandler always did, from a fresh seed. A null theme picks one
+    // at random; the theme is then drawn from the seed too and the maze has a descriptor.
+    public static PreparedMaze generate(int nbRow, int nbCol, String theme) {
+        long seed = ThreadLocalRandom.current().nextLong();
+        if (theme == null && MazeDescriptor.fits(nbRow, nbCol)) {
+            return generate(MazeDescriptor.of(seed, nbRow, nbCol));
+        }
+        long started = System.nanoTime();
+        MazeGenerator maze = new DfsAlgorithm(nbRow, nbCol, theme, new Random(seed));
+        maze.setStartAndEnd();
+        maze.generateMaze();
+        maze.createLoops();
+        PreparedMaze prepared = new PreparedMaze(maze, maze.serializeMaze(), null);
+        ServerMetrics.get().mazeGeneration.recordSince(started);
+        return prepared;
+    }
+
+    // The maze of the descriptor, as any client that has the same dictionary generates it
+    public static PreparedMaze generate(MazeDescriptor descriptor) {
+        long started = System.nanoTime();
+        Maze maze = descriptor.generate();
+        PreparedMaze prepared = new PreparedMaze(maze, maze.serializeMaze(), descriptor);
+        ServerMetrics.get().mazeGeneration.recordSince(started);
+        return prepared;
+    }
+
+    // A maze recorded earlier (see GameJournal), prepared like a generated one
+    public static PreparedMaze decode(byte[] payload, String theme) throws IOException {
+        return new PreparedMaze(MazeCodec.decode(payload, theme), payload, null);
+    }
+
+    public Maze getMaze() {
+        return maze;
+    }
+
+    // Encoded maze, shared by every reader: do not modify
+    public byte[] getPayload() {
+        return payload;
+    }
+
+    // Shared like the payload: do not modify
+    public byte[] getDeflatedPayload() {
+        return deflatedPayload;
+    }
+
+    public MazeTiles getTiles() {
+        return tiles;
+    }
+
+    public MazeDescriptor getDescriptor() {
+        return descriptor;
+    }
+
+    public int getShortestPathLength() {
+        return shortestPathLength;
+    }
+}
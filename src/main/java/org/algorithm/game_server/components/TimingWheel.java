@@ -0,0 +1,231 @@
+package org.algorithm.game_server.components;
+
+import org.algorithm.game_server.server.ServerImpl;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.logging.Logger;
+
+// Hashed timing wheel: one thread and a ring of buckets for every timeout in the server (turn
+// deadlines, idle checks). Scheduling and cancelling are O(1) and cost one small object; expiry has
+// the resolution of a tick. Callers only touch lock-free queues, the buckets belong to the wheel thread.
+// Tasks run on the wheel thread, so they must be short and never block.
+public class TimingWheel {
+    private static final int WHEEL_SIZE = 512;
+    private static final long SHARED_TICK_MILLIS = 50;
+
+    private static final class Shared {
+        static final TimingWheel INSTANCE = new TimingWheel("maze-timer", SHARED_TICK_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    public static final class Timeout {
+        private static final int PENDING = 0;
+        private static final int CANCELLED = 1;
+        private static final int EXPIRED = 2;
+        private static final AtomicIntegerFieldUpdater<Timeout> STATE =
+                AtomicIntegerFieldUpdater.newUpdater(Timeout.class, "state");
+
+        private final TimingWheel wheel;
+        private final Runnable task;
+        // Nanoseconds since the wheel started
+        private final long deadline;
+        private volatile int state = PENDING;
+        // Wheel thread only
+        private long remainingRounds;
+        private Bucket bucket;
+        private Timeout previous;
+        private Timeout next;
+
+        private Timeout(TimingWheel wheel, Runnable task, long deadline) {
+            this.wheel = wheel;
+            this.task = task;
+            this.deadline = deadline;
+        }
+
+        // Returns false when the task already ran or was already cancelled
+        public boolean cancel() {
+            if (!STATE.compareAndSet(this, PENDING, CANCELLED)) {
+                return false;
+            }
+            wheel.pending.decrementAndGet();
+            wheel.cancelled.add(this);
+            return true;
+        }
+
+        public boolean isCancelled() {
+            return state == CANCELLED;
+        }
+
+        public boolean isExpired() {
+            return state == EXPIRED;
+        }
+
+        private void expire() {
+            if (!STATE.compareAndSet(this, PENDING, EXPIRED)) {
+                return;
+            }
+            wheel.pending.decrementAndGet();
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                wheel.logger.warning("Timer task failed: " + e.getMessage());
+            }
+        }
+    }
+
+    // Doubly linked list of the timeouts hashed to one slot of the wheel
+    private static final class Bucket {
+        private Timeout head;
+        private Timeout tail;
+
+        void add(Timeout timeout) {
+            timeout.bucket = this;
+            if (head == null) {
+                head = tail = timeout;
+            } else {
+                tail.next = timeout;
+                timeout.previous = tail;
+                tail = timeout;
+            }
+        }
+
+        void remove(Timeout timeout) {
+            Timeout next = timeout.next;
+            if (timeout.previous != null) {
+                timeout.previous.next = next;
+            }
+            if (next != null) {
+                next.previous = timeout.previous;
+            }
+            if (timeout == head) {
+                head = next;
+            }
+            if (timeout == tail) {
+                tail = timeout.previous;
+            }
+            timeout.previous = null;
+            timeout.next = null;
+            timeout.bucket = null;
+        }
+
+        // Runs the timeouts due on this round of the wheel, the others wait for theirs
+        void expire() {
+            Timeout timeout = head;
+            while (timeout != null) {
+                Timeout next = timeout.next;
+                if (timeout.remainingRounds <= 0) {
+                    remove(timeout);
+                    timeout.expire();
+                } else if (timeout.isCancelled()) {
+                    remove(timeout);
+                } else {
+                    timeout.remainingRounds--;
+                }
+                timeout = next;
+            }
+        }
+    }
+
+    private final long tickNanos;
+    private final Bucket[] wheel = new Bucket[WHEEL_SIZE];
+    private final Queue<Timeout> added = new ConcurrentLinkedQueue<>();
+    private final Queue<Timeout> cancelled = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pending = new AtomicInteger();
+    private final long startTime;
+    private final Thread worker;
+    private final Logger logger;
+    private volatile boolean running = true;
+    // Wheel thread only
+    private long tick;
+
+    public TimingWheel(String name, long tickDuration, TimeUnit unit) {
+        this.tickNanos = unit.toNanos(tickDuration);
+        for (int i = 0; i < WHEEL_SIZE; i++) {
+            wheel[i] = new Bucket();
+        }
+        this.logger = Logger.getLogger(ServerImpl.class.getName());
+        this.startTime = System.nanoTime();
+        this.worker = new Thread(this::run, name);
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    // The wheel shared by every session of the process
+    public static TimingWheel shared() {
+        return Shared.INSTANCE;
+    }
+
+    public Timeout schedule(Runnable task, long delay, TimeUnit unit) {
+        Timeout timeout = new Timeout(this, task, System.nanoTime() - startTime + Math.max(0, unit.toNanos(delay)));
+        pending.incrementAndGet();
+        added.add(timeout);
+        return timeout;
+    }
+
+    // Timeouts scheduled and not yet run or cancelled
+    public int getPendingCount() {
+        return pending.get();
+    }
+
+    private void run() {
+        while (running) {
+            if (!waitForNextTick()) {
+                break;
+            }
+            removeCancelled();
+            transferAdded();
+            wheel[(int) (tick & (WHEEL_SIZE - 1))].expire();
+            tick++;
+        }
+    }
+
+    // Sleeps until the end of the current tick, returns false when stopped. Every timeout in the
+    // tick's bucket with no rounds left has a deadline before that point.
+    private boolean waitForNextTick() {
+        long deadline = tickNanos * (tick + 1);
+        while (true) {
+            long sleepNanos = deadline - (System.nanoTime() - startTime);
+            if (sleepNanos <= 0) {
+                return true;
+            }
+            try {
+                TimeUnit.NANOSECONDS.sleep(sleepNanos);
+            } catch (InterruptedException e) {
+                if (!running) {
+                    return false;
+                }
+            }
+        }
+    }
+
+    private void transferAdded() {
+        Timeout timeout;
+        while ((timeout = added.poll()) != null) {
+            if (timeout.isCancelled()) {
+                continue;
+            }
+            long dueTick = timeout.deadline / tickNanos;
+            timeout.remainingRounds = (dueTick - tick) / WHEEL_SIZE;
+            // Already late: run on this tick
+            long slot = Math.max(dueTick, tick);
+            wheel[(int) (slot & (WHEEL_SIZE - 1))].add(timeout);
+        }
+    }
+
+    private void removeCancelled() {
+        Timeout timeout;
+        while ((timeout = cancelled.poll()) != null) {
+            if (timeout.bucket != null) {
+                timeout.bucket.remove(timeout);
+            }
+        }
+    }
+
+    public void stop() {
+        running = false;
+        worker.interrupt();
+    }
+}
@@ -0,0 +1,296 @@
+package org.algorithm.game_server.journal;
+
+import org.algorithm.components.Node;
+import org.algorithm.game_server.metrics.ServerMetrics;
+import org.algorithm.game_server.server.ServerImpl;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+
+// Append-only journal of every session event: the maze, moves, turns, scores, game over and leaves.
+// Sessions only encode a record and queue it, they never wait on the disk. One writer thread drains
+// the queue and writes what it finds with one gathering write and one sync (group commit), so a sync
+// costs the same for one record or a thousand. Enabled by -Dmaze.journal.dir=<directory>, one file
+// per process. JournalReplayer reads the files back and replays the sessions.
+//
+// File: magic "MJ", version (1 byte), then records (big endian):
+//   length (int, bytes after the length field), CRC32 of what follows the CRC (int),
+//   type (1 byte), session id (long), time in epoch millis (long), body
+//   SESSION    theme (short length + UTF-8), maze payload (int length + bytes, see MazeCodec)
+//   MOVE       player (1 byte), row, column (ints)
+//   PATH       player (1 byte), row, column (ints) of each cell
+//   TURN       player (1 byte) whose turn starts, turn number (int)
+//   SCORE      player (1 byte), score (int)
+//   GAME_OVER  first player's score, second player's score (ints)
+//   LEAVE      player (1 byte)
+// A crash can leave a torn record at the end of the file, the reader stops on it.
+public class GameJournal {
+    public static final byte[] MAGIC = {'M', 'J'};
+    public static final byte VERSION = 1;
+    public static final int FILE_HEADER_SIZE = MAGIC.length + 1;
+    // Length, CRC, type, session id, time
+    public static final int RECORD_HEADER_SIZE = 2 * Integer.BYTES + 1 + 2 * Long.BYTES;
+
+    public static final byte SESSION = 1;
+    public static final byte MOVE = 2;
+    public static final byte PATH = 3;
+    public static final byte TURN = 4;
+    public static final byte SCORE = 5;
+    public static final byte GAME_OVER = 6;
+    public static final byte LEAVE = 7;
+
+    // How long the writer waits for more records once the queue is empty
+    private static final long COMMIT_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(5);
+    // Records written by one gathering write
+    private static final int MAX_GROUP = 1024;
+    // Bytes queued and not written yet; past this records are dropped rather than kept in memory
+    private static final long MAX_PENDING_BYTES = 64L * 1024 * 1024;
+
+    private static final class Shared {
+        static final GameJournal INSTANCE = open();
+    }
+
+    // The events of one session. Called from the session's mailbox only, so its records keep their order.
+    public static final class Session {
+        // Returned while the journal is disabled: records nothing
+        public static final Session NONE = new Session(null, 0);
+
+        private final GameJournal journal;
+        private final long id;
+
+        private Session(GameJournal journal, long id) {
+            this.journal = journal;
+            this.id = id;
+        }
+
+        public long getId() {
+            return id;
+        }
+
+        public void move(int playerId, Node node) {
+            if (journal == null) {
+                return;
+            }
+            ByteBuffer record = journal.record(MOVE, id, 1 + 2 * Integer.BYTES);
+            record.put((byte) playerId).putInt(node.getRow()).putInt(node.getColumn());
+            journal.append(record);
+        }
+
+        public void path(int playerId, List<Node> nodes) {
+            if (journal == null) {
+                return;
+            }
+            ByteBuffer record = journal.record(PATH, id, 1 + nodes.size() * 2 * Integer.BYTES);
+            record.put((byte) playerId);
+            for (Node node : nodes) {
+                record.putInt(node.getRow()).putInt(node.getColumn());
+            }
+            journal.append(record);
+        }
+
+        public void turn(int playerId, int turn) {
+            if (journal == null) {
+                return;
+            }
+            ByteBuffer record = journal.record(TURN, id, 1 + Integer.BYTES);
+            record.put((byte) playerId).putInt(turn);
+            journal.append(record);
+        }
+
+        public void score(int playerId, int score) {
+            if (journal == null) {
+                return;
+            }
+            ByteBuffer record = journal.record(SCORE, id, 1 + Integer.BYTES);
+            record.put((byte) playerId).putInt(score);
+            journal.append(record);
+        }
+
+        public void gameOver(int firstPlayerScore, int secondPlayerScore) {
+            if (journal == null) {
+                return;
+            }
+            ByteBuffer record = journal.record(GAME_OVER, id, 2 * Integer.BYTES);
+            record.putInt(firstPlayerScore).putInt(secondPlayerScore);
+            journal.append(record);
+        }
+
+        public void left(int playerId) {
+            if (journal == null) {
+                return;
+            }
+            ByteBuffer record = journal.record(LEAVE, id, 1);
+            record.put((byte) playerId);
+            journal.append(record);
+        }
+    }
+
+    private final FileChannel channel;
+    private final boolean fsync;
+    private final Queue<ByteBuffer> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicLong pendingBytes = new AtomicLong();
+    private final AtomicLong sessionIds = new AtomicLong();
+    private final Thread writer;
+    private final Logger logger;
+    private volatile boolean enabled;
+    private volatile boolean closed;
+
+    private GameJournal(FileChannel channel, boolean fsync) {
+        this.channel = channel;
+        this.fsync = fsync;
+        this.enabled = channel != null;
+        this.logger = Logger.getLogger(ServerImpl.class.getName());
+        if (enabled) {
+            writer = new Thread(this::write, "maze-journal");
+            writer.setDaemon(true);
+            writer.start();
+            Runtime.getRuntime().addShutdownHook(new Thread(this::close, "maze-journal-close"));
+        } else {
+            writer = null;
+        }
+    }
+
+    public static GameJournal get() {
+        return Shared.INSTANCE;
+    }
+
+    private static GameJournal open() {
+        String directory = System.getProperty("maze.journal.dir");
+        if (directory == null || directory.isEmpty()) {
+            return new GameJournal(null, false);
+        }
+        boolean fsync = Boolean.parseBoolean(System.getProperty("maze.journal.fsync", "true"));
+        try {
+            Path dir = Files.createDirectories(Path.of(directory));
+            Path file = dir.resolve("game-" + System.currentTimeMillis() + ".journal");
+            FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+            ByteBuffer header = ByteBuffer.allocate(FILE_HEADER_SIZE).put(MAGIC).put(VERSION).flip();
+            while (header.hasRemaining()) {
+                channel.write(header);
+            }
+            Logger.getLogger(ServerImpl.class.getName()).info("Journaling game events to " + file);
+            return new GameJournal(channel, fsync);
+        } catch (IOException e) {
+            Logger.getLogger(ServerImpl.class.getName()).warning("Game journal disabled, cannot open it in " + directory + ": " + e);
+            return new GameJournal(null, false);
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // A new session, recorded with the maze it is played on
+    public Session startSession(String theme, byte[] mazePayload) {
+        if (!enabled) {
+            return Session.NONE;
+        }
+        Session session = new Session(this, sessionIds.incrementAndGet());
+        byte[] name = theme == null ? new byte[0] : theme.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer record = record(SESSION, session.id, Short.BYTES + name.length + Integer.BYTES + mazePayload.length);
+        record.putShort((short) name.length).put(name).putInt(mazePayload.length).put(mazePayload);
+        append(record);
+        return session;
+    }
+
+    // A record with its header written and the buffer positioned on its body
+    private ByteBuffer record(byte type, long sessionId, int bodyLength) {
+        ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER_SIZE + bodyLength);
+        record.putInt(RECORD_HEADER_SIZE - Integer.BYTES + bodyLength).putInt(0)
+                .put(type).putLong(sessionId).putLong(System.currentTimeMillis());
+        return record;
+    }
+
+    private void append(ByteBuffer record) {
+        record.flip();
+        CRC32 crc = new CRC32();
+        crc.update(record.duplicate().position(2 * Integer.BYTES));
+        record.putInt(Integer.BYTES, (int) crc.getValue());
+        if (!enabled) {
+            ServerMetrics.get().journalDropped.increment();
+            return;
+        }
+        if (pendingBytes.addAndGet(record.remaining()) > MAX_PENDING_BYTES) {
+            pendingBytes.addAndGet(-record.remaining());
+            ServerMetrics.get().journalDropped.increment();
+            return;
+        }
+        pending.add(record);
+    }
+
+    // Writer thread: everything queued goes out in one write and one sync
+    private void write() {
+        ByteBuffer[] group = new ByteBuffer[MAX_GROUP];
+        ServerMetrics metrics = ServerMetrics.get();
+        while (true) {
+            int count = 0;
+            long bytes = 0;
+            ByteBuffer record;
+            while (count < MAX_GROUP && (record = pending.poll()) != null) {
+                group[count++] = record;
+                bytes += record.remaining();
+            }
+            if (count == 0) {
+                if (closed) {
+                    return;
+                }
+                LockSupport.parkNanos(COMMIT_INTERVAL_NANOS);
+                continue;
+            }
+            long started = System.nanoTime();
+            try {
+                long written = 0;
+                while (written < bytes) {
+                    written += channel.write(group, 0, count);
+                }
+                if (fsync) {
+                    channel.force(false);
+                }
+            } catch (IOException e) {
+                logger.warning("Game journal disabled, write failed: " + e);
+                enabled = false;
+                metrics.journalDropped.add(count + pending.size());
+                pending.clear();
+                return;
+            } finally {
+                pendingBytes.addAndGet(-bytes);
+                Arrays.fill(group, 0, count, null);
+            }
+            metrics.journalCommit.recordSince(started);
+            metrics.journalRecords.add(count);
+            metrics.journalBytes.add(bytes);
+        }
+    }
+
+    // Writes what is queued and closes the file; later records are dropped
+    public void close() {
+        if (writer == null || closed) {
+            return;
+        }
+        closed = true;
+        LockSupport.unpark(writer);
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(5));
+            enabled = false;
+            channel.close();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            logger.warning("Failed to close the game journal: " + e);
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package org.algorithm.game_server.journal;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+// Reads a journal written by GameJournal, one record at a time, from the file mapped read-only.
+// A record that is cut short or fails its CRC ends the file: it is the tail of a write a crash
+// interrupted, nothing after it can be trusted.
+public class JournalReader implements AutoCloseable {
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final CRC32 crc = new CRC32();
+    private boolean truncated = false;
+    // Current record
+    private byte type;
+    private long sessionId;
+    private long timeMillis;
+    private ByteBuffer body;
+
+    public JournalReader(Path file) throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.READ);
+        buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        if (buffer.remaining() < GameJournal.FILE_HEADER_SIZE || buffer.get() != GameJournal.MAGIC[0]
+                || buffer.get() != GameJournal.MAGIC[1]) {
+            channel.close();
+            throw new IOException(file + " is not a game journal");
+        }
+        int version = buffer.get() & 0xFF;
+        if (version != GameJournal.VERSION) {
+            channel.close();
+            throw new IOException(file + ": unsupported journal version " + version);
+        }
+    }
+
+    // Moves to the next record, false at the end of the file or on a torn record
+    public boolean next() {
+        if (truncated || !buffer.hasRemaining()) {
+            return false;
+        }
+        int start = buffer.position();
+        if (buffer.remaining() < GameJournal.RECORD_HEADER_SIZE) {
+            return torn();
+        }
+        int length = buffer.getInt(start);
+        if (length < GameJournal.RECORD_HEADER_SIZE - Integer.BYTES || length > buffer.remaining() - Integer.BYTES) {
+            return torn();
+        }
+        int checked = start + 2 * Integer.BYTES;
+        int end = start + Integer.BYTES + length;
+        crc.reset();
+        crc.update(buffer.duplicate().position(checked).limit(end));
+        if ((int) crc.getValue() != buffer.getInt(start + Integer.BYTES)) {
+            return torn();
+        }
+        type = buffer.get(checked);
+        sessionId = buffer.getLong(checked + 1);
+        timeMillis = buffer.getLong(checked + 1 + Long.BYTES);
+        body = buffer.slice(start + GameJournal.RECORD_HEADER_SIZE, end - start - GameJournal.RECORD_HEADER_SIZE);
+        buffer.position(end);
+        return true;
+    }
+
+    private boolean torn() {
+        truncated = true;
+        return false;
+    }
+
+    // The file ended on a torn record
+    public boolean isTruncated() {
+        return truncated;
+    }
+
+    public byte getType() {
+        return type;
+    }
+
+    public long getSessionId() {
+        return sessionId;
+    }
+
+    public long getTimeMillis() {
+        return timeMillis;
+    }
+
+    // Body of the current record, from its position to its limit
+    public ByteBuffer getBody() {
+        return body;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
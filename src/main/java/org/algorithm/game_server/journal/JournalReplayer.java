@@ -0,0 +1,162 @@
+package org.algorithm.game_server.journal;
+
+import org.algorithm.components.Node;
+import org.algorithm.game_server.components.GameHandler;
+import org.algorithm.game_server.components.PreparedMaze;
+import org.algorithm.game_server.server.ServerImpl;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+// Rebuilds every session of one or more journals and plays its moves again on a GameHandler: the
+// scores and game over the replay reaches must be the ones recorded. Prints one line per session and
+// exits with 1 when one of them diverges.
+//
+//   java -cp maze_server.jar org.algorithm.game_server.journal.JournalReplayer <journal>...
+public class JournalReplayer {
+    private static final class Replay {
+        final GameHandler game;
+        int events = 0;
+        int mismatches = 0;
+        boolean recordedGameOver = false;
+        String firstMismatch;
+        // Last score recorded for each player since the previous event, -1 when none. An event can
+        // record a score more than once (the end bonus comes after the move's points), so a score
+        // is checked once the event that recorded it is over.
+        final int[] recordedScores = {-1, -1};
+
+        Replay(GameHandler game) {
+            this.game = game;
+        }
+
+        void checkScores() {
+            for (int playerId = 0; playerId < 2; playerId++) {
+                if (recordedScores[playerId] >= 0 && game.getScore(playerId) != recordedScores[playerId]) {
+                    mismatch("player " + playerId + " score " + game.getScore(playerId) + ", recorded " + recordedScores[playerId]);
+                }
+                recordedScores[playerId] = -1;
+            }
+        }
+
+        void mismatch(String what) {
+            if (mismatches++ == 0) {
+                firstMismatch = what;
+            }
+        }
+    }
+
+    private final Map<Long, Replay> sessions = new LinkedHashMap<>();
+    // Records of sessions whose SESSION record isn't in the files read
+    private int orphans = 0;
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.err.println("Usage: JournalReplayer <journal>...");
+            System.exit(2);
+        }
+        // The sessions log every move, the summary is what matters here
+        Logger.getLogger(ServerImpl.class.getName()).setLevel(Level.WARNING);
+        JournalReplayer replayer = new JournalReplayer();
+        for (String file : args) {
+            replayer.replay(Path.of(file));
+        }
+        System.exit(replayer.report() ? 0 : 1);
+    }
+
+    public void replay(Path file) throws IOException {
+        try (JournalReader reader = new JournalReader(file)) {
+            while (reader.next()) {
+                apply(reader.getType(), reader.getSessionId(), reader.getBody());
+            }
+            if (reader.isTruncated()) {
+                System.out.println(file + ": ends on a torn record, replayed up to it");
+            }
+        }
+    }
+
+    private void apply(byte type, long sessionId, ByteBuffer body) throws IOException {
+        if (type == GameJournal.SESSION) {
+            byte[] theme = new byte[body.getShort()];
+            body.get(theme);
+            byte[] payload = new byte[body.getInt()];
+            body.get(payload);
+            PreparedMaze maze = PreparedMaze.decode(payload, new String(theme, StandardCharsets.UTF_8));
+            sessions.put(sessionId, new Replay(GameHandler.forReplay(maze)));
+            return;
+        }
+        Replay replay = sessions.get(sessionId);
+        if (replay == null) {
+            orphans++;
+            return;
+        }
+        replay.events++;
+        GameHandler game = replay.game;
+        if (type != GameJournal.SCORE && type != GameJournal.GAME_OVER) {
+            replay.checkScores();
+        }
+        switch (type) {
+            case GameJournal.MOVE -> {
+                int playerId = body.get();
+                game.replayMove(playerId, node(game, body.getInt(), body.getInt()));
+            }
+            case GameJournal.PATH -> {
+                int playerId = body.get();
+                List<Node> nodes = new ArrayList<>(body.remaining() / (2 * Integer.BYTES));
+                while (body.hasRemaining()) {
+                    nodes.add(node(game, body.getInt(), body.getInt()));
+                }
+                game.replayPath(playerId, nodes);
+            }
+            case GameJournal.TURN -> game.replayTurn(body.get());
+            case GameJournal.SCORE -> {
+                int playerId = body.get();
+                replay.recordedScores[playerId] = body.getInt();
+            }
+            case GameJournal.GAME_OVER -> {
+                replay.recordedGameOver = true;
+                int first = body.getInt();
+                int second = body.getInt();
+                if (!game.isGameOver() || game.getScore(0) != first || game.getScore(1) != second) {
+                    replay.mismatch("game over " + game.isGameOver() + " at " + game.getScore(0) + "-" + game.getScore(1)
+                            + ", recorded " + first + "-" + second);
+                }
+            }
+            case GameJournal.LEAVE -> game.replayLeave(body.get());
+            default -> replay.mismatch("unknown record type " + type);
+        }
+    }
+
+    private static Node node(GameHandler game, int row, int column) {
+        return game.getMazeGen().getGrid().node(row, column);
+    }
+
+    // True when every session replayed to its recorded outcome
+    public boolean report() {
+        int diverged = 0;
+        for (Map.Entry<Long, Replay> entry : sessions.entrySet()) {
+            Replay replay = entry.getValue();
+            replay.checkScores();
+            GameHandler game = replay.game;
+            String outcome = replay.recordedGameOver ? "finished" : game.isGameOver() ? "abandoned" : "unfinished";
+            System.out.println("session " + entry.getKey() + ": " + replay.events + " events, " + outcome
+                    + ", scores " + game.getScore(0) + "-" + game.getScore(1)
+                    + (replay.mismatches == 0 ? ", replay matches" : ", DIVERGED (" + replay.mismatches + "): " + replay.firstMismatch));
+            if (replay.mismatches > 0) {
+                diverged++;
+            }
+        }
+        if (orphans > 0) {
+            System.out.println(orphans + " records of sessions started in another journal were skipped");
+        }
+        System.out.println(sessions.size() + " sessions replayed, " + diverged + " diverged");
+        return diverged == 0;
+    }
+}
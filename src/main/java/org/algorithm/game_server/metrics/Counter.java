@@ -0,0 +1,47 @@
+package org.algorithm.game_server.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+// Monotonic count. LongAdder stripes contended updates across cells, so recording never blocks.
+public class Counter implements Metric {
+    private final String name;
+    private final String help;
+    private final LongAdder count = new LongAdder();
+
+    Counter(String name, String help) {
+        this.name = name;
+        this.help = help;
+    }
+
+    public void increment() {
+        count.increment();
+    }
+
+    public void add(long amount) {
+        count.add(amount);
+    }
+
+    public long get() {
+        return count.sum();
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public String getHelp() {
+        return help;
+    }
+
+    @Override
+    public String getType() {
+        return "counter";
+    }
+
+    @Override
+    public void collect(Sink sink) {
+        sink.sample("", "", count.sum());
+    }
+}
@@ -0,0 +1,40 @@
+package org.algorithm.game_server.metrics;
+
+import java.util.function.DoubleSupplier;
+
+// Value computed when it is read, e.g. a queue size or a pool statistic
+public class Gauge implements Metric {
+    private final String name;
+    private final String help;
+    private final DoubleSupplier value;
+
+    Gauge(String name, String help, DoubleSupplier value) {
+        this.name = name;
+        this.help = help;
+        this.value = value;
+    }
+
+    public double get() {
+        return value.getAsDouble();
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public String getHelp() {
+        return help;
+    }
+
+    @Override
+    public String getType() {
+        return "gauge";
+    }
+
+    @Override
+    public void collect(Sink sink) {
+        sink.sample("", "", value.getAsDouble());
+    }
+}
@@ -0,0 +1,115 @@
+package org.algorithm.game_server.metrics;
+
+import java.math.BigDecimal;
+import java.util.concurrent.atomic.LongAdder;
+
+// Latency distribution over fixed buckets. Values are recorded in nanoseconds and reported in
+// seconds. Recording is a scan of the bucket bounds and one LongAdder update: no locks, no allocation.
+public class Histogram implements Metric {
+    // 10us to 10s, roughly 1-2.5-5 steps
+    static final long[] DEFAULT_BOUNDS_NANOS = {
+            10_000L, 25_000L, 50_000L, 100_000L, 250_000L, 500_000L,
+            1_000_000L, 2_500_000L, 5_000_000L, 10_000_000L, 25_000_000L, 50_000_000L,
+            100_000_000L, 250_000_000L, 500_000_000L, 1_000_000_000L, 2_500_000_000L, 10_000_000_000L
+    };
+
+    private final String name;
+    private final String help;
+    // Inclusive upper bound of each bucket, the last bucket (+Inf) has none
+    private final long[] bounds;
+    // Prometheus le labels of the bounds, in seconds
+    private final String[] boundLabels;
+    private final LongAdder[] buckets;
+    private final LongAdder sumNanos = new LongAdder();
+
+    Histogram(String name, String help, long[] boundsNanos) {
+        this.name = name;
+        this.help = help;
+        this.bounds = boundsNanos.clone();
+        this.boundLabels = new String[bounds.length];
+        for (int i = 0; i < bounds.length; i++) {
+            boundLabels[i] = "{le=\"" + BigDecimal.valueOf(bounds[i], 9).stripTrailingZeros().toPlainString() + "\"}";
+        }
+        this.buckets = new LongAdder[bounds.length + 1];
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    public void record(long nanos) {
+        int bucket = 0;
+        while (bucket < bounds.length && nanos > bounds[bucket]) {
+            bucket++;
+        }
+        buckets[bucket].increment();
+        sumNanos.add(nanos);
+    }
+
+    // Records the time elapsed since start, a System.nanoTime() value
+    public void recordSince(long start) {
+        record(System.nanoTime() - start);
+    }
+
+    public long getCount() {
+        long count = 0;
+        for (LongAdder bucket : buckets) {
+            count += bucket.sum();
+        }
+        return count;
+    }
+
+    public double getSumSeconds() {
+        return sumNanos.sum() / 1e9;
+    }
+
+    // Upper bound of the bucket holding the quantile, in seconds (the largest bound for the +Inf bucket)
+    public double getQuantile(double quantile) {
+        long[] counts = new long[buckets.length];
+        long total = 0;
+        for (int i = 0; i < buckets.length; i++) {
+            counts[i] = buckets[i].sum();
+            total += counts[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(quantile * total);
+        long seen = 0;
+        for (int i = 0; i < bounds.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return bounds[i] / 1e9;
+            }
+        }
+        return bounds[bounds.length - 1] / 1e9;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public String getHelp() {
+        return help;
+    }
+
+    @Override
+    public String getType() {
+        return "histogram";
+    }
+
+    // Prometheus buckets are cumulative
+    @Override
+    public void collect(Sink sink) {
+        long cumulative = 0;
+        for (int i = 0; i < bounds.length; i++) {
+            cumulative += buckets[i].sum();
+            sink.sample("_bucket", boundLabels[i], cumulative);
+        }
+        cumulative += buckets[bounds.length].sum();
+        sink.sample("_bucket", "{le=\"+Inf\"}", cumulative);
+        sink.sample("_sum", "", getSumSeconds());
+        sink.sample("_count", "", cumulative);
+    }
+}
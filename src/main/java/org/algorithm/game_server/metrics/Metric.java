@@ -0,0 +1,19 @@
+package org.algorithm.game_server.metrics;
+
+// A named instrument that can report its current samples, in Prometheus naming (snake_case, base units)
+public interface Metric {
+    String getName();
+
+    String getHelp();
+
+    // Prometheus type: counter, gauge or histogram
+    String getType();
+
+    // Reports every sample of the metric. Only called when metrics are read, never on the hot path.
+    void collect(Sink sink);
+
+    interface Sink {
+        // suffix is appended to the metric name (e.g. "_bucket"), labels is empty or a Prometheus label set
+        void sample(String suffix, String labels, double value);
+    }
+}
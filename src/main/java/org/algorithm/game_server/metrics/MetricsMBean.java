@@ -0,0 +1,86 @@
+package org.algorithm.game_server.metrics;
+
+import javax.management.Attribute;
+import javax.management.AttributeList;
+import javax.management.AttributeNotFoundException;
+import javax.management.DynamicMBean;
+import javax.management.MBeanAttributeInfo;
+import javax.management.MBeanInfo;
+import javax.management.ReflectionException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Read-only JMX view of a registry. Counters and gauges are one attribute each; histograms are
+// summarized as count, sum and p50/p99/p999 (bucket upper bounds, in seconds).
+public class MetricsMBean implements DynamicMBean {
+    private final MetricsRegistry registry;
+
+    public MetricsMBean(MetricsRegistry registry) {
+        this.registry = registry;
+    }
+
+    private Map<String, Number> snapshot() {
+        Map<String, Number> values = new LinkedHashMap<>();
+        for (Metric metric : registry.getMetrics()) {
+            if (metric instanceof Counter counter) {
+                values.put(metric.getName(), counter.get());
+            } else if (metric instanceof Gauge gauge) {
+                values.put(metric.getName(), gauge.get());
+            } else if (metric instanceof Histogram histogram) {
+                values.put(metric.getName() + "_count", histogram.getCount());
+                values.put(metric.getName() + "_sum", histogram.getSumSeconds());
+                values.put(metric.getName() + "_p50", histogram.getQuantile(0.5));
+                values.put(metric.getName() + "_p99", histogram.getQuantile(0.99));
+                values.put(metric.getName() + "_p999", histogram.getQuantile(0.999));
+            }
+        }
+        return values;
+    }
+
+    @Override
+    public Object getAttribute(String attribute) throws AttributeNotFoundException {
+        Number value = snapshot().get(attribute);
+        if (value == null) {
+            throw new AttributeNotFoundException(attribute);
+        }
+        return value;
+    }
+
+    @Override
+    public AttributeList getAttributes(String[] attributes) {
+        Map<String, Number> values = snapshot();
+        AttributeList list = new AttributeList();
+        for (String attribute : attributes) {
+            if (values.containsKey(attribute)) {
+                list.add(new Attribute(attribute, values.get(attribute)));
+            }
+        }
+        return list;
+    }
+
+    @Override
+    public MBeanInfo getMBeanInfo() {
+        List<MBeanAttributeInfo> attributes = new ArrayList<>();
+        snapshot().forEach((name, value) -> attributes.add(new MBeanAttributeInfo(
+                name, value.getClass().getName(), name, true, false, false)));
+        return new MBeanInfo(getClass().getName(), "Game server metrics",
+                attributes.toArray(new MBeanAttributeInfo[0]), null, null, null);
+    }
+
+    @Override
+    public void setAttribute(Attribute attribute) throws AttributeNotFoundException {
+        throw new AttributeNotFoundException("Metrics are read-only: " + attribute.getName());
+    }
+
+    @Override
+    public AttributeList setAttributes(AttributeList attributes) {
+        return new AttributeList();
+    }
+
+    @Override
+    public Object invoke(String actionName, Object[] params, String[] signature) throws ReflectionException {
+        throw new ReflectionException(new UnsupportedOperationException(actionName));
+    }
+}
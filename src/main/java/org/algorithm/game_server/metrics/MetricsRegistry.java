@@ -0,0 +1,52 @@
+package org.algorithm.game_server.metrics;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.DoubleSupplier;
+
+// Ordered set of metrics, by name. Registering a name again replaces the old metric, so a restarted
+// server can point its gauges at its new components.
+public class MetricsRegistry {
+    private final List<Metric> metrics = new CopyOnWriteArrayList<>();
+
+    public Counter counter(String name, String help) {
+        return register(new Counter(name, help));
+    }
+
+    public Gauge gauge(String name, String help, DoubleSupplier value) {
+        return register(new Gauge(name, help, value));
+    }
+
+    public Histogram histogram(String name, String help) {
+        return register(new Histogram(name, help, Histogram.DEFAULT_BOUNDS_NANOS));
+    }
+
+    public synchronized <T extends Metric> T register(T metric) {
+        metrics.removeIf(existing -> existing.getName().equals(metric.getName()));
+        metrics.add(metric);
+        return metric;
+    }
+
+    public List<Metric> getMetrics() {
+        return metrics;
+    }
+
+    // Prometheus text exposition format 0.0.4
+    public String toPrometheusText() {
+        StringBuilder text = new StringBuilder(4096);
+        for (Metric metric : metrics) {
+            text.append("# HELP ").append(metric.getName()).append(' ').append(metric.getHelp()).append('\n');
+            text.append("# TYPE ").append(metric.getName()).append(' ').append(metric.getType()).append('\n');
+            metric.collect((suffix, labels, value) -> text.append(metric.getName()).append(suffix).append(labels)
+                    .append(' ').append(format(value)).append('\n'));
+        }
+        return text.toString();
+    }
+
+    private static String format(double value) {
+        if (value == Math.rint(value) && !Double.isInfinite(value) && Math.abs(value) < 1e15) {
+            return Long.toString((long) value);
+        }
+        return Double.toString(value);
+    }
+}
@@ -0,0 +1,160 @@
+package org.algorithm.game_server.metrics;
+
+import org.algorithm.game_server.components.ClientHandler;
+import org.algorithm.game_server.components.GameHandler;
+import org.algorithm.game_server.components.MazePool;
+import org.algorithm.game_server.components.TimingWheel;
+import org.algorithm.game_server.server.ServerImpl;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToIntFunction;
+import java.util.logging.Logger;
+
+// The game server's metrics, shared by every server mode in the process.
+// Exposed over JMX as org.algorithm.game_server:type=Metrics and on http://127.0.0.1:<port>/metrics,
+// the port coming from the maze.metrics.port system property (9404 by default, 0 to disable).
+// Queue depths are summed (and maxed) over the live sessions when read, so recording stays on counters.
+public final class ServerMetrics {
+    public static final String PORT_PROPERTY = "maze.metrics.port";
+    private static final int DEFAULT_PORT = 9404;
+    private static final String OBJECT_NAME = "org.algorithm.game_server:type=Metrics";
+
+    private static final ServerMetrics INSTANCE = new ServerMetrics();
+
+    private final MetricsRegistry registry = new MetricsRegistry();
+    private final Logger logger = Logger.getLogger(ServerImpl.class.getName());
+    private final Set<GameHandler> sessions = ConcurrentHashMap.newKeySet();
+    private final Set<ClientHandler> clientHandlers = ConcurrentHashMap.newKeySet();
+    private final LongAdder nioConnections = new LongAdder();
+    private MetricsHttpServer httpServer;
+
+    public final Counter connectionsAccepted = registry.counter("maze_connections_accepted_total",
+            "Connections accepted by the server");
+    public final Counter sessionsStarted = registry.counter("maze_sessions_started_total",
+            "Game sessions started");
+    public final Counter moves = registry.counter("maze_moves_total",
+            "Moves applied to a player path");
+    public final Counter bytesSent = registry.counter("maze_bytes_sent_total",
+            "Bytes written to client sockets");
+    public final Histogram mazeGeneration = registry.histogram("maze_generation_seconds",
+            "Time to generate, solve and encode one maze");
+    public final Histogram moveScoring = registry.histogram("maze_move_scoring_seconds",
+            "Time to score one move");
+    public final Counter journalRecords = registry.counter("maze_journal_records_total",
+            "Game events written to the journal");
+    public final Counter journalBytes = registry.counter("maze_journal_bytes_total",
+            "Bytes written to the journal");
+    public final Counter journalDropped = registry.counter("maze_journal_dropped_total",
+            "Game events dropped because the journal writer fell behind or failed");
+    public final Histogram journalCommit = registry.histogram("maze_journal_commit_seconds",
+            "Time to write and sync one group of journal records");
+
+    private ServerMetrics() {
+        registry.gauge("maze_active_sessions", "Sessions not over yet", sessions::size);
+        registry.gauge("maze_active_connections", "Open client connections",
+                () -> clientHandlers.size() + nioConnections.sum());
+        registry.gauge("maze_session_mailbox_depth", "Events waiting in the sessions' mailboxes",
+                () -> sum(sessions, GameHandler::getMailboxSize));
+        registry.gauge("maze_session_mailbox_depth_max", "Deepest session mailbox",
+                () -> max(sessions, GameHandler::getMailboxSize));
+        registry.gauge("maze_outgoing_queue_depth", "Messages waiting in the connections' outgoing queues",
+                () -> sum(clientHandlers, ClientHandler::getOutgoingQueueSize));
+        registry.gauge("maze_outgoing_queue_depth_max", "Deepest outgoing queue of a connection",
+                () -> max(clientHandlers, ClientHandler::getOutgoingQueueSize));
+        registry.gauge("maze_timers_pending", "Turn and idle timeouts waiting on the timing wheel",
+                () -> TimingWheel.shared().getPendingCount());
+    }
+
+    public static ServerMetrics get() {
+        return INSTANCE;
+    }
+
+    public MetricsRegistry getRegistry() {
+        return registry;
+    }
+
+    public void sessionStarted(GameHandler session) {
+        sessionsStarted.increment();
+        sessions.add(session);
+    }
+
+    // Safe to call more than once, from game over and from every disconnect
+    public void sessionEnded(GameHandler session) {
+        sessions.remove(session);
+    }
+
+    public void connectionOpened(ClientHandler connection) {
+        clientHandlers.add(connection);
+    }
+
+    public void connectionClosed(ClientHandler connection) {
+        clientHandlers.remove(connection);
+    }
+
+    public void nioConnectionOpened() {
+        nioConnections.increment();
+    }
+
+    public void nioConnectionClosed() {
+        nioConnections.decrement();
+    }
+
+    public void registerMazePool(MazePool pool) {
+        registry.gauge("maze_pool_hits", "Sessions served a pooled maze", pool::getHits);
+        registry.gauge("maze_pool_misses", "Sessions that generated their maze inline", pool::getMisses);
+        registry.gauge("maze_pool_ready", "Mazes ready to be served", pool::getReadyCount);
+        registry.gauge("maze_pool_refill_seconds_max", "Longest background refill", () -> pool.getMaxRefillMillis() / 1e3);
+    }
+
+    // Registers the MBean and starts the HTTP endpoint; a failure is logged and the server runs without them
+    public synchronized void expose() {
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(new MetricsMBean(registry), new ObjectName(OBJECT_NAME));
+        } catch (InstanceAlreadyExistsException e) {
+            // Another server in this process already registered it
+        } catch (JMException e) {
+            logger.warning("Could not register metrics MBean: " + e.getMessage());
+        }
+        int port = Integer.getInteger(PORT_PROPERTY, DEFAULT_PORT);
+        if (httpServer != null || port <= 0) {
+            return;
+        }
+        try {
+            httpServer = new MetricsHttpServer(registry, port);
+            httpServer.start();
+            logger.info("Metrics on http://127.0.0.1:" + httpServer.getPort() + "/metrics");
+        } catch (IOException e) {
+            logger.warning("Could not start metrics endpoint on port " + port + ": " + e.getMessage());
+        }
+    }
+
+    public synchronized void stopEndpoint() {
+        if (httpServer != null) {
+            httpServer.stop();
+            httpServer = null;
+        }
+    }
+
+    private static <T> long sum(Set<T> items, ToIntFunction<T> depth) {
+        long total = 0;
+        for (T item : items) {
+            total += depth.applyAsInt(item);
+        }
+        return total;
+    }
+
+    private static <T> long max(Set<T> items, ToIntFunction<T> depth) {
+        long max = 0;
+        for (T item : items) {
+            max = Math.max(max, depth.applyAsInt(item));
+        }
+        return max;
+    }
+}
@@ -0,0 +1,285 @@
+package org.algorithm.game_server.protocol;
+
+import org.algorithm.components.Node;
+import org.algorithm.maze.Maze;
+import org.algorithm.maze.codec.MazeDescriptor;
+import org.algorithm.maze.codec.MazeTiles;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.net.ProtocolException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+// Binary game protocol, spoken by clients that open their connection with a HELLO frame. Clients that
+// start with a text command keep the newline-delimited text protocol.
+//
+// Frame (big endian): length (int, bytes after the length field), type (1 byte), body
+//   HELLO      magic "MZ", version (1 byte)           client first; the server answers with its own version
+//   MAZE       maze payload (see MazeCodec)           empty from the client to ask for it
+//   THEME      UTF-8 theme name                       empty from the client to ask for it
+//   MOVE       row, column (ints)                     the client's move, or the opponent's move
+//   SCORE      player (1 byte, 0 you, 1 opponent), score (int)
+//   TURN       1 byte, 1 when the turn is yours
+//   GAME_OVER  empty
+//   HINT       moves left (int), next row, next column (ints); empty from the client to ask for it
+//   HEARTBEAT  empty, client only
+//   PATH       row, column (ints) of each cell      a run of moves applied at once, or the opponent's run
+//   DEFLATED_MAZE
+//              maze payload deflated (see MazeCodec)  empty from the client to ask for it
+//   TILED_MAZE nbRow, nbColumn, startRow, startColumn, endRow, endColumn, tile size (ints)
+//                                                    empty from the client to ask for it: the maze is
+//                                                    then fetched a tile at a time
+//   TILE       tile row, tile column (ints)           from the client; the server answers with the
+//                                                    tile (see MazeTiles)
+//   READY      empty, client only                     a client fetching tiles can play, the game starts
+//                                                    once both players are ready
+//   DESCRIPTOR maze descriptor (see MazeDescriptor)   empty from the client to ask for it; empty from the
+//                                                    server when the maze has none, the client then asks
+//                                                    for the MAZE
+//
+// A HELLO frame starts with 0, the high byte of its length, which no text command starts with: the
+// server tells the protocols apart from the first byte of the connection.
+// Frames are decoded in place, the readers take the buffer positioned on the frame's length field.
+public final class BinaryProtocol {
+    public static final byte[] MAGIC = {'M', 'Z'};
+    public static final byte VERSION = 1;
+    public static final int LENGTH_SIZE = Integer.BYTES;
+    public static final int HEADER_SIZE = LENGTH_SIZE + 1;
+    // Cells one PATH (or text path command) may carry
+    public static final int MAX_PATH_CELLS = 256;
+    // The largest thing a client sends is a PATH
+    public static final int MAX_CLIENT_FRAME = 1 + MAX_PATH_CELLS * 2 * Integer.BYTES;
+
+    public static final byte HELLO = 1;
+    public static final byte MAZE = 2;
+    public static final byte THEME = 3;
+    public static final byte MOVE = 4;
+    public static final byte SCORE = 5;
+    public static final byte TURN = 6;
+    public static final byte GAME_OVER = 7;
+    public static final byte HINT = 8;
+    public static final byte HEARTBEAT = 9;
+    public static final byte PATH = 10;
+    public static final byte DESCRIPTOR = 11;
+    public static final byte DEFLATED_MAZE = 12;
+    public static final byte TILED_MAZE = 13;
+    public static final byte TILE = 14;
+    public static final byte READY = 15;
+
+    public static final int HELLO_SIZE = HEADER_SIZE + MAGIC.length + 1;
+    public static final int MOVE_SIZE = HEADER_SIZE + 2 * Integer.BYTES;
+    public static final int SCORE_SIZE = HEADER_SIZE + 1 + Integer.BYTES;
+    public static final int TURN_SIZE = HEADER_SIZE + 1;
+    public static final int HINT_SIZE = HEADER_SIZE + 3 * Integer.BYTES;
+    public static final int TILED_MAZE_SIZE = HEADER_SIZE + 7 * Integer.BYTES;
+
+    private BinaryProtocol() {
+    }
+
+    public static boolean isBinaryStart(int firstByte) {
+        return firstByte == 0;
+    }
+
+    // Writers put a whole frame at the buffer's position
+
+    public static void putHeader(ByteBuffer out, byte type, int bodyLength) {
+        out.putInt(1 + bodyLength).put(type);
+    }
+
+    // A frame with no body: GAME_OVER, HEARTBEAT and the client's requests
+    public static void putEmpty(ByteBuffer out, byte type) {
+        putHeader(out, type, 0);
+    }
+
+    public static void putHello(ByteBuffer out, byte version) {
+        putHeader(out, HELLO, MAGIC.length + 1);
+        out.put(MAGIC).put(version);
+    }
+
+    public static void putMove(ByteBuffer out, int row, int column) {
+        putHeader(out, MOVE, 2 * Integer.BYTES);
+        out.putInt(row).putInt(column);
+    }
+
+    public static void putScore(ByteBuffer out, boolean opponent, int score) {
+        putHeader(out, SCORE, 1 + Integer.BYTES);
+        out.put((byte) (opponent ? 1 : 0)).putInt(score);
+    }
+
+    public static void putTurn(ByteBuffer out, boolean yours) {
+        putHeader(out, TURN, 1);
+        out.put((byte) (yours ? 1 : 0));
+    }
+
+    public static void putHint(ByteBuffer out, int distance, int row, int column) {
+        putHeader(out, HINT, 3 * Integer.BYTES);
+        out.putInt(distance).putInt(row).putInt(column);
+    }
+
+    public static int pathSize(int nbCells) {
+        return HEADER_SIZE + nbCells * 2 * Integer.BYTES;
+    }
+
+    public static void putPath(ByteBuffer out, List<Node> cells) {
+        putHeader(out, PATH, cells.size() * 2 * Integer.BYTES);
+        for (Node cell : cells) {
+            out.putInt(cell.getRow()).putInt(cell.getColumn());
+        }
+    }
+
+    // The frames sent to a player, ready to be written
+
+    public static ByteBuffer hello() {
+        ByteBuffer frame = ByteBuffer.allocate(HELLO_SIZE);
+        putHello(frame, VERSION);
+        return frame.flip();
+    }
+
+    public static ByteBuffer move(int row, int column) {
+        ByteBuffer frame = ByteBuffer.allocate(MOVE_SIZE);
+        putMove(frame, row, column);
+        return frame.flip();
+    }
+
+    public static ByteBuffer score(boolean opponent, int score) {
+        ByteBuffer frame = ByteBuffer.allocate(SCORE_SIZE);
+        putScore(frame, opponent, score);
+        return frame.flip();
+    }
+
+    public static ByteBuffer turn(boolean yours) {
+        ByteBuffer frame = ByteBuffer.allocate(TURN_SIZE);
+        putTurn(frame, yours);
+        return frame.flip();
+    }
+
+    public static ByteBuffer gameOver() {
+        ByteBuffer frame = ByteBuffer.allocate(HEADER_SIZE);
+        putEmpty(frame, GAME_OVER);
+        return frame.flip();
+    }
+
+    public static ByteBuffer hint(int distance, int row, int column) {
+        ByteBuffer frame = ByteBuffer.allocate(HINT_SIZE);
+        putHint(frame, distance, row, column);
+        return frame.flip();
+    }
+
+    public static ByteBuffer path(List<Node> cells) {
+        ByteBuffer frame = ByteBuffer.allocate(pathSize(cells.size()));
+        putPath(frame, cells);
+        return frame.flip();
+    }
+
+    public static ByteBuffer theme(String theme) {
+        byte[] name = theme.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer frame = ByteBuffer.allocate(HEADER_SIZE + name.length);
+        putHeader(frame, THEME, name.length);
+        frame.put(name);
+        return frame.flip();
+    }
+
+    // What a client needs before its first tile: the size, the start and end cells and the tile size
+    public static ByteBuffer tiledMaze(Maze maze) {
+        ByteBuffer frame = ByteBuffer.allocate(TILED_MAZE_SIZE);
+        putHeader(frame, TILED_MAZE, 7 * Integer.BYTES);
+        frame.putInt(maze.getGrid().getNbRow()).putInt(maze.getGrid().getNbColumn())
+                .putInt(maze.getStart().getRow()).putInt(maze.getStart().getColumn())
+                .putInt(maze.getEnd().getRow()).putInt(maze.getEnd().getColumn())
+                .putInt(MazeTiles.TILE_SIZE);
+        return frame.flip();
+    }
+
+    public static void putTileRequest(ByteBuffer out, int tileRow, int tileColumn) {
+        putHeader(out, TILE, 2 * Integer.BYTES);
+        out.putInt(tileRow).putInt(tileColumn);
+    }
+
+    // The descriptor the client can generate the maze from, or an empty DESCRIPTOR frame
+    public static ByteBuffer descriptor(MazeDescriptor descriptor) {
+        int bodyLength = descriptor == null ? 0 : MazeDescriptor.SIZE;
+        ByteBuffer frame = ByteBuffer.allocate(HEADER_SIZE + bodyLength);
+        putHeader(frame, DESCRIPTOR, bodyLength);
+        if (descriptor != null) {
+            descriptor.encode(frame);
+        }
+        return frame.flip();
+    }
+
+    // Header of a MAZE frame, the payload is written after it without being copied
+    public static ByteBuffer mazeHeader(int payloadLength) {
+        return mazeHeader(MAZE, payloadLength);
+    }
+
+    // Header of a MAZE, DEFLATED_MAZE or TILE frame
+    public static ByteBuffer mazeHeader(byte type, int payloadLength) {
+        ByteBuffer frame = ByteBuffer.allocate(HEADER_SIZE);
+        putHeader(frame, type, payloadLength);
+        return frame.flip();
+    }
+
+    // Readers
+
+    // Size of the complete frame at the buffer's position (length field included), or -1 while
+    // part of it is still to be read
+    public static int frameSize(ByteBuffer in, int maxLength) throws ProtocolException {
+        if (in.remaining() < LENGTH_SIZE) {
+            return -1;
+        }
+        int length = in.getInt(in.position());
+        if (length < 1 || length > maxLength) {
+            throw new ProtocolException("Invalid frame length: " + length);
+        }
+        return in.remaining() < LENGTH_SIZE + length ? -1 : LENGTH_SIZE + length;
+    }
+
+    // Reads the next frame of a blocking stream into the buffer, or into a larger one when it doesn't
+    // fit. The buffer returned holds the frame alone, from its position to its limit.
+    public static ByteBuffer readFrame(DataInputStream in, ByteBuffer buffer, int maxLength) throws IOException {
+        int length = in.readInt();
+        if (length < 1 || length > maxLength) {
+            throw new ProtocolException("Invalid frame length: " + length);
+        }
+        if (buffer.capacity() < LENGTH_SIZE + length) {
+            buffer = ByteBuffer.allocate(LENGTH_SIZE + length);
+        }
+        buffer.clear();
+        buffer.putInt(0, length);
+        in.readFully(buffer.array(), LENGTH_SIZE, length);
+        return buffer.limit(LENGTH_SIZE + length);
+    }
+
+    public static byte type(ByteBuffer in) {
+        return in.get(in.position() + LENGTH_SIZE);
+    }
+
+    public static int bodyLength(ByteBuffer in) {
+        return in.getInt(in.position()) - 1;
+    }
+
+    public static byte bodyByte(ByteBuffer in, int offset) {
+        return in.get(in.position() + HEADER_SIZE + offset);
+    }
+
+    // The index-th int of the body
+    public static int bodyInt(ByteBuffer in, int index) {
+        return in.getInt(in.position() + HEADER_SIZE + index * Integer.BYTES);
+    }
+
+    // Cells of a PATH frame, or -1 when its body isn't a whole number of at least one cell
+    public static int pathCells(ByteBuffer in) {
+        int length = bodyLength(in);
+        return length > 0 && length % (2 * Integer.BYTES) == 0 ? length / (2 * Integer.BYTES) : -1;
+    }
+
+    // Version a HELLO frame asks for, or -1 when it isn't a HELLO of this protocol
+    public static int helloVersion(ByteBuffer in) {
+        if (type(in) != HELLO || bodyLength(in) != MAGIC.length + 1
+                || bodyByte(in, 0) != MAGIC[0] || bodyByte(in, 1) != MAGIC[1]) {
+            return -1;
+        }
+        return bodyByte(in, MAGIC.length) & 0xFF;
+    }
+}
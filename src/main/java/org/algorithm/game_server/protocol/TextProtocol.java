@@ -0,0 +1,88 @@
+package org.algorithm.game_server.protocol;
+
+import org.algorithm.maze.Maze;
+import org.algorithm.maze.codec.MazeTiles;
+
+// Cell values of the text protocol: "(row,column)", and for a path several of them separated by ';',
+// e.g. "(3,4);(3,5);(4,5)". Parsed by hand, a move is the most frequent line the server reads.
+// A tile is asked for with the same notation, "(tileRow,tileColumn)". Tiles come back as length-prefixed
+// frames like the maze; a frame starts with 0, which no text line does, so a client can tell them
+// from the game's lines.
+public final class TextProtocol {
+    public static final char CELL_SEPARATOR = ';';
+    // Digits a row or column may have, keeps the parse clear of int overflow
+    private static final int MAX_DIGITS = 9;
+
+    private TextProtocol() {
+    }
+
+    // Answer to "tiles": "nbRow nbColumn startRow startColumn endRow endColumn tileSize"
+    public static String tiledMaze(Maze maze) {
+        return maze.getGrid().getNbRow() + " " + maze.getGrid().getNbColumn()
+                + " " + maze.getStart().getRow() + " " + maze.getStart().getColumn()
+                + " " + maze.getEnd().getRow() + " " + maze.getEnd().getColumn() + " " + MazeTiles.TILE_SIZE;
+    }
+
+    // Row and column of every cell of the line, in pairs, or null when the line is malformed or
+    // holds more than maxCells cells
+    public static int[] parseCells(String line, int maxCells) {
+        if (line == null) {
+            return null;
+        }
+        int count = 0;
+        for (int i = 0; i < line.length(); i++) {
+            if (line.charAt(i) == '(') {
+                count++;
+            }
+        }
+        if (count == 0 || count > maxCells) {
+            return null;
+        }
+        int[] cells = new int[2 * count];
+        int position = 0;
+        for (int cell = 0; cell < count; cell++) {
+            if (cell > 0) {
+                position = expect(line, position, CELL_SEPARATOR);
+            }
+            position = expect(line, position, '(');
+            position = parseNumber(line, position, cells, 2 * cell);
+            position = expect(line, position, ',');
+            position = parseNumber(line, position, cells, 2 * cell + 1);
+            position = expect(line, position, ')');
+            if (position < 0) {
+                return null;
+            }
+        }
+        return position == line.length() ? cells : null;
+    }
+
+    // Position after the expected character, or -1
+    private static int expect(String line, int position, char expected) {
+        if (position < 0 || position >= line.length() || line.charAt(position) != expected) {
+            return -1;
+        }
+        return position + 1;
+    }
+
+    // Position after the number stored in values[index], or -1 when there is no number there
+    private static int parseNumber(String line, int position, int[] values, int index) {
+        if (position < 0) {
+            return -1;
+        }
+        int value = 0;
+        int end = position;
+        while (end < line.length() && end - position < MAX_DIGITS) {
+            char c = line.charAt(end);
+            if (c < '0' || c > '9') {
+                break;
+            }
+            value = value * 10 + (c - '0');
+            end++;
+        }
+        if (end == position) {
+            return -1;
+        }
+        values[index] = value;
+        return end;
+    }
+}
@@ -0,0 +1,143 @@
+package org.algorithm.game_server.server;
+
+import org.algorithm.game_server.components.EventLoop;
+import org.algorithm.game_server.components.GameHandler;
+import org.algorithm.game_server.components.MazePool;
+import org.algorithm.game_server.metrics.ServerMetrics;
+import org.algorithm.game_server.components.NioConnection;
+import org.algorithm.game_server.utils.Utilities;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.logging.Logger;
+
+// Selector based server: one acceptor plus a fixed set of event loops (one per core by default).
+// Each accepted connection is pinned round-robin to a loop for its whole lifetime.
+public class NioServerImpl {
+    private final int port;
+    private final Queue<NioConnection> queue;
+    private final int nbRow;
+    private final int nbCol;
+    private final Logger logger;
+    // Ready-made mazes so pairing players never waits on generation
+    private final MazePool mazePool;
+    private final EventLoop[] eventLoops;
+    private int nextLoop = 0;
+    private ServerSocketChannel server;
+    private Selector acceptSelector;
+
+    public NioServerImpl(int port) throws IOException {
+        this(port, Runtime.getRuntime().availableProcessors());
+    }
+
+    public NioServerImpl(int port, int nbEventLoops) throws IOException {
+        this.port = port;
+        this.queue = new ConcurrentLinkedQueue<>();
+        // Maze size, -Dmaze.rows and -Dmaze.columns; large mazes are best fetched in tiles
+        this.nbRow = Integer.getInteger("maze.rows", 15);
+        this.nbCol = Integer.getInteger("maze.columns", 30);
+        this.logger = Logger.getLogger(ServerImpl.class.getName());
+        this.mazePool = new MazePool();
+        this.mazePool.prewarm(nbRow, nbCol, null);
+        ServerMetrics.get().registerMazePool(mazePool);
+        this.eventLoops = new EventLoop[nbEventLoops];
+        for (int i = 0; i < nbEventLoops; i++) {
+            eventLoops[i] = new EventLoop("maze-io-" + i);
+        }
+    }
+
+    public void start() throws IOException {
+        System.out.println("Starting NIO server on port " + port + " with " + eventLoops.length + " event loops");
+        for (EventLoop eventLoop : eventLoops) {
+            eventLoop.start();
+        }
+        ServerMetrics.get().expose();
+        server = ServerSocketChannel.open();
+        server.bind(new InetSocketAddress(port));
+        server.configureBlocking(false);
+        acceptSelector = Selector.open();
+        server.register(acceptSelector, SelectionKey.OP_ACCEPT);
+        acceptConnections();
+    }
+
+    void acceptConnections() throws IOException {
+        while (server.isOpen()) {
+            acceptSelector.select();
+            Iterator<SelectionKey> keys = acceptSelector.selectedKeys().iterator();
+            while (keys.hasNext()) {
+                keys.next();
+                keys.remove();
+                SocketChannel channel;
+                while ((channel = server.accept()) != null) {
+                    ServerMetrics.get().connectionsAccepted.increment();
+                    channel.configureBlocking(false);
+                    channel.socket().setTcpNoDelay(true);
+                    EventLoop eventLoop = eventLoops[nextLoop];
+                    nextLoop = (nextLoop + 1) % eventLoops.length;
+                    NioConnection connection = new NioConnection(channel, eventLoop);
+                    eventLoop.register(connection);
+                    queue.add(connection);
+                    if (queue.size() >= 2) {
+                        handleGame();
+                    }
+                }
+            }
+        }
+    }
+
+    public void handleGame() {
+        NioConnection firstClient = queue.poll();
+        NioConnection secondClient = queue.poll();
+        if (firstClient == null || secondClient == null) {
+            logger.warning("Not enough clients to start a game session.");
+            return;
+        }
+
+        GameHandler gameHandler = new GameHandler(mazePool.take(nbRow, nbCol, null));
+        ServerMetrics.get().sessionStarted(gameHandler);
+        logger.info("Maze pool: " + mazePool.stats());
+        String firstAddress = firstClient.getChannel().socket().getRemoteSocketAddress().toString();
+        String secondAddress = secondClient.getChannel().socket().getRemoteSocketAddress().toString();
+        String sessionId = Utilities.createSessionID(firstAddress, secondAddress);
+        logger.info("Session created: " + sessionId);
+        logger.info("Game started! Client1: " + firstAddress + " Client2: " + secondAddress);
+        // The game starts once both clients have requested the maze
+        firstClient.joinGame(gameHandler, 0);
+        secondClient.joinGame(gameHandler, 1);
+    }
+
+    public void stop() throws IOException {
+        for (EventLoop eventLoop : eventLoops) {
+            eventLoop.shutdown();
+        }
+        mazePool.shutdown();
+        ServerMetrics.get().stopEndpoint();
+        if (acceptSelector != null) {
+            acceptSelector.close();
+        }
+        if (server != null) {
+            server.close();
+        }
+    }
+
+    public static void main(String[] args) {
+        int port = 5000;
+        try {
+            NioServerImpl server = new NioServerImpl(port);
+            try {
+                server.start();
+            } finally {
+                server.stop();
+            }
+        } catch (IOException e) {
+            System.out.println("Server error: " + e.getMessage());
+        }
+    }
+}
@@ -2,6 +2,8 @@ package org.algorithm.game_server.server;
 
 import org.algorithm.game_server.components.ClientHandler;
 import org.algorithm.game_server.components.GameHandler;
+import org.algorithm.game_server.components.MazePool;
+import org.algorithm.game_server.metrics.ServerMetrics;
 import org.algorithm.game_server.utils.Utilities;
 import java.io.IOException;
 import java.net.ServerSocket;
@@ -10,6 +12,7 @@ import java.util.Queue;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
 import java.util.logging.Logger;
 
 public class ServerImpl  {
@@ -19,28 +22,53 @@ public class ServerImpl  {
     private int nbRow;
     private int nbCol;
     private final Logger logger;
+    // Ready-made mazes so pairing players never waits on generation
+    private final MazePool mazePool;
     private ExecutorService executorService;
+    private final ThreadFactory threadFactory;
 
     public ServerImpl(int port) {
+        this(port, false);
+    }
+
+    // With virtualThreads set, every connection thread (listener, sender) is virtual; game events run on
+    // the Mailbox executor either way
+    public ServerImpl(int port, boolean virtualThreads) {
         this.port = port;
         this.queue = new ConcurrentLinkedQueue<>();
-        this.nbRow = 15;
-        this.nbCol = 30;
+        // Maze size, -Dmaze.rows and -Dmaze.columns; large mazes are best fetched in tiles
+        this.nbRow = Integer.getInteger("maze.rows", 15);
+        this.nbCol = Integer.getInteger("maze.columns", 30);
         this.logger = Logger.getLogger(ServerImpl.class.getName());
-        this.executorService = Executors.newCachedThreadPool();
+        this.mazePool = new MazePool();
+        this.mazePool.prewarm(nbRow, nbCol, null);
+        ServerMetrics.get().registerMazePool(mazePool);
+        if (virtualThreads) {
+            this.threadFactory = Thread.ofVirtual().name("maze-session-", 0).factory();
+            this.executorService = Executors.newThreadPerTaskExecutor(threadFactory);
+        } else {
+            this.threadFactory = Executors.defaultThreadFactory();
+            this.executorService = Executors.newCachedThreadPool();
+        }
     }
 
     public void start() throws IOException {
         System.out.println("Starting server on port " + port);
         server = new ServerSocket(port);
+        ServerMetrics.get().expose();
         acceptConnections();
     }
 
     void acceptConnections() throws IOException {
         while (!server.isClosed()) {
             Socket clientSocket = server.accept();
+            // Writes are already batched per event, Nagle would only hold the next event back
+            clientSocket.setTcpNoDelay(true);
+            ServerMetrics.get().connectionsAccepted.increment();
             System.out.println("Connection established...");
-            ClientHandler client = new ClientHandler(clientSocket);
+            ClientHandler client = new ClientHandler(clientSocket, threadFactory);
+            // Counted from here, while it waits for a partner too; cleanup removes it
+            ServerMetrics.get().connectionOpened(client);
             queue.add(client);
             if (queue.size() >= 2) {
                 handleGame();
@@ -50,6 +78,8 @@ public class ServerImpl  {
 
     public void stop() throws IOException {
         executorService.shutdown();
+        mazePool.shutdown();
+        ServerMetrics.get().stopEndpoint();
         server.close();
     }
 
@@ -67,7 +97,9 @@ public class ServerImpl  {
             return;
         }
 
-        GameHandler gameHandler = new GameHandler(nbCol, nbRow);
+        GameHandler gameHandler = new GameHandler(mazePool.take(nbRow, nbCol, null));
+        ServerMetrics.get().sessionStarted(gameHandler);
+        logger.info("Maze pool: " + mazePool.stats());
         firstClient.setGameHandler(gameHandler);
         secondClient.setGameHandler(gameHandler);
         firstClient.setClientId(0);
@@ -78,30 +110,19 @@ public class ServerImpl  {
         );
         logger.info("Session created: " + sessionId);
         logger.info("Game started! Client1: " + firstClient.getClientSocket().getRemoteSocketAddress().toString() + " Client2: " + secondClient.getClientSocket().getRemoteSocketAddress().toString() );
+        // Each client thread joins the session and reads its commands; the game starts once both
+        // clients have requested the maze
         executorService.submit(firstClient);
         executorService.submit(secondClient);
-
-        Thread initializationChecker = new Thread(() -> {
-            while (!firstClient.isClientsInitialized() || !secondClient.isClientsInitialized()) {
-                try {
-                    Thread.sleep(100);
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                    return;
-                }
-            }
-            try {
-                logger.info("Both clients initialized, starting game");
-                gameHandler.startTurn();
-            } catch (InterruptedException e) {
-                logger.warning("Error starting game: " + e.getMessage());
-            }
-        });
-        initializationChecker.start();
     }
     public static void main(String[] args) {
         int port = 5000;
-        ServerImpl server = new ServerImpl(port);
+        ServerMode mode = ServerMode.fromArgs(args);
+        if (mode == ServerMode.NIO) {
+            NioServerImpl.main(args);
+            return;
+        }
+        ServerImpl server = new ServerImpl(port, mode == ServerMode.VIRTUAL);
         try {
             server.start();
         } catch (IOException e) {
@@ -0,0 +1,22 @@
+package org.algorithm.game_server.server;
+
+// How the server runs its client sessions, selected at startup with the first program argument
+public enum ServerMode {
+    // One cached platform thread pool, two platform threads per connection (listener and sender)
+    THREADS,
+    // Same blocking code, both connection threads are virtual
+    VIRTUAL,
+    // Selector based event loops, see NioServerImpl
+    NIO;
+
+    public static ServerMode fromArgs(String[] args) {
+        if (args.length == 0) {
+            return THREADS;
+        }
+        try {
+            return valueOf(args[0].toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown server mode: " + args[0] + " (expected threads, virtual or nio)");
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package org.algorithm.maze;
+
+import org.algorithm.components.MazeGrid;
+import org.algorithm.components.Node;
+import org.algorithm.data.DictionaryRegistry;
+import org.algorithm.data.ThemeDictionary;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+// A maze that lays itself out: subclasses carve the grid in generateMaze. Start, end, loops and
+// words are all drawn from the generator's Random.
+public abstract class MazeGenerator extends Maze {
+    protected List<String> dictionary;
+    protected List<String> defaultDictionary;
+    protected final Random random;
+
+    public MazeGenerator(int nbRow, int nbColumn) {
+        this(nbRow, nbColumn, null);
+    }
+
+    // A null theme picks one at random
+    public MazeGenerator(int nbRow, int nbColumn, String theme) {
+        this(nbRow, nbColumn, theme, new Random());
+    }
+
+    // Every random choice (theme, junk words, layout, letters) comes from the given generator,
+    // so a seeded Random gives the same maze every time
+    public MazeGenerator(int nbRow, int nbColumn, String theme, Random random) {
+        super(new MazeGrid(nbRow, nbColumn), new Node(0, 0), new Node(nbRow - 1, nbColumn - 1), pickTheme(theme, random));
+        this.random = random;
+        this.defaultDictionary = this.theme.getWords();
+        this.dictionary = new ArrayList<>(defaultDictionary);
+        for (int i = 0; i < dictionary.size() / 2; i++) {
+            int wordLen = random.nextInt(3) + 2;
+            StringBuilder wordBuilder = new StringBuilder();
+            for (int j = 0; j < wordLen; j++) {
+                wordBuilder.append((char) (random.nextInt(26) + 'A'));
+            }
+            int index = random.nextInt(dictionary.size());
+            this.dictionary.add(index, wordBuilder.toString().toLowerCase());
+        }
+    }
+
+    // The theme is the first thing drawn, before the junk words
+    private static ThemeDictionary pickTheme(String theme, Random random) {
+        DictionaryRegistry registry = DictionaryRegistry.getInstance();
+        return theme == null ? registry.random(random) : registry.get(theme);
+    }
+
+    public abstract void generateMaze();
+
+    public void setStartAndEnd() {
+        boolean isVertical = random.nextBoolean();
+        if (isVertical) {
+            start.setColumn(0);
+            end.setColumn(nbColumn - 1);
+            start.setRow(random.nextInt(nbRow));
+            end.setRow(start.getRow()<nbRow/2?random.nextInt(nbRow/2,nbRow):random.nextInt(0,nbRow/2));
+        } else {
+            start.setRow(0);
+            end.setRow(nbRow - 1);
+            start.setColumn(random.nextInt(nbColumn));
+            end.setColumn(start.getColumn()<nbColumn/2?random.nextInt(nbColumn/2,nbColumn):random.nextInt(0,nbColumn/2));
+        }
+        while (start.getRow() == end.getRow() && start.getColumn() == end.getColumn()) {
+            if (isVertical) {
+                end.setRow(random.nextInt(nbRow));
+            } else {
+                end.setColumn(random.nextInt(nbColumn));
+            }
+        }
+    }
+
+    // Orthogonal directions: up, down, left, right
+    private static final int[] NEIGHBOR_ROW = {-1, 1, 0, 0};
+    private static final int[] NEIGHBOR_COL = {0, 0, -1, 1};
+    // Writes the in-bounds orthogonal neighbors (as grid indexes) into buffer, which needs room for 4, and returns how many
+    protected int getNeighbors(int current, int[] buffer) {
+        int count = 0;
+        int row = grid.rowOf(current);
+        int col = grid.columnOf(current);
+        for (int i = 0; i < NEIGHBOR_ROW.length; i++) {
+            int newRow = row + NEIGHBOR_ROW[i];
+            int newCol = col + NEIGHBOR_COL[i];
+
+            if (newRow >= 0 && newRow < nbRow &&
+                    newCol >= 0 && newCol < nbColumn) {
+                buffer[count++] = grid.index(newRow, newCol);
+            }
+        }
+        return count;
+    }
+    // Same as getNeighbors, keeping only cells whose part-of-maze flag matches
+    protected int getNeighbors(int current, int[] buffer, boolean partOfMaze) {
+        int count = 0;
+        int nbNeighbors = getNeighbors(current, buffer);
+        for (int i = 0; i < nbNeighbors; i++) {
+            if (grid.isPartOfMaze(buffer[i]) == partOfMaze) {
+                buffer[count++] = buffer[i];
+            }
+        }
+        return count;
+    }
+    protected void removeWallBetween(int current, int next) {
+        grid.removeWallBetween(current, next);
+    }
+    public void createLoops() {
+        createLoops(0.4);
+    }
+    // Opens density * cells extra walls; keep it well under 1, a perfect maze has about one inner wall per cell
+    public void createLoops(double density) {
+        int numberOfLoops=(int)(nbRow*nbColumn*density);
+        int loopsCreated = 0;
+        while (loopsCreated < numberOfLoops) {
+            int col = random.nextInt(nbColumn);
+            int row = random.nextInt(nbRow);
+            int border = random.nextInt(4);
+            if (isBorderValid(row, col, border)) {
+                grid.removeBorder(grid.index(row, col), border);
+                int neighborRow = row;
+                int neighborCol = col;
+                switch (border) {
+                    case 0:
+                        neighborRow--;
+                        break;
+                    case 1:
+                        neighborCol++;
+                        break;
+                    case 2:
+                        neighborRow++;
+                        break;
+                    case 3:
+                        neighborCol--;
+                        break;
+                }
+
+                int oppositeBorder = (border + 2) % 4;
+                grid.removeBorder(grid.index(neighborRow, neighborCol), oppositeBorder);
+
+                loopsCreated++;
+            }
+        }
+    }
+    protected boolean isBorderValid(int row, int col, int border) {
+        return switch (border) {
+            case 0 -> row > 0;
+            case 1 -> col < nbColumn - 1;
+            case 2 -> row < nbRow - 1;
+            case 3 -> col > 0;
+            default -> false;
+        };
+    }
+}
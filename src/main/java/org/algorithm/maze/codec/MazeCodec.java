@@ -0,0 +1,165 @@
+package org.algorithm.maze.codec;
+
+import org.algorithm.components.MazeGrid;
+import org.algorithm.components.Node;
+import org.algorithm.maze.Maze;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+// Compact binary maze encoding.
+//
+// Layout (big endian):
+//   header : magic "MZ" (2 bytes), version (1 byte), nbRow, nbColumn, startRow, startColumn, endRow, endColumn (6 ints)
+//   rows   : for every row, the wall nibbles of the row packed two cells per byte (even column in the low nibble),
+//            followed by one letter byte per cell
+//
+// On the socket the payload is sent as a frame: payload length (int) followed by the payload bytes.
+// A deflated payload is the payload as a zlib stream, framed the same way; MazeDecoder reads it
+// through inflate(). The letters are close to random, so it only saves about a quarter; the fastest
+// level compresses within 1% of the best one at half the cost.
+public final class MazeCodec {
+    public static final byte[] MAGIC = {'M', 'Z'};
+    public static final byte VERSION = 1;
+    public static final int HEADER_SIZE = MAGIC.length + 1 + 6 * Integer.BYTES;
+    // Upper bound for a frame we accept when reading, guards against garbage length prefixes
+    public static final int MAX_FRAME_SIZE = 64 * 1024 * 1024;
+
+    private MazeCodec() {
+    }
+
+    public static int wallBytesPerRow(int nbColumn) {
+        return (nbColumn + 1) / 2;
+    }
+
+    public static int encodedSize(int nbRow, int nbColumn) {
+        return HEADER_SIZE + nbRow * (wallBytesPerRow(nbColumn) + nbColumn);
+    }
+
+    public static byte[] encode(Maze maze) {
+        return encode(maze.getGrid(), maze.getStart(), maze.getEnd());
+    }
+
+    public static byte[] encode(MazeGrid grid, Node start, Node end) {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream(encodedSize(grid.getNbRow(), grid.getNbColumn()));
+        try {
+            encode(grid, start, end, bos);
+        } catch (IOException e) {
+            // ByteArrayOutputStream never throws
+            throw new IllegalStateException(e);
+        }
+        return bos.toByteArray();
+    }
+
+    // Streams the encoding row by row, so large mazes never need the whole payload in memory
+    public static void encode(MazeGrid grid, Node start, Node end, OutputStream out) throws IOException {
+        int nbRow = grid.getNbRow();
+        int nbColumn = grid.getNbColumn();
+        DataOutputStream data = new DataOutputStream(out);
+        data.write(MAGIC);
+        data.writeByte(VERSION);
+        data.writeInt(nbRow);
+        data.writeInt(nbColumn);
+        data.writeInt(start.getRow());
+        data.writeInt(start.getColumn());
+        data.writeInt(end.getRow());
+        data.writeInt(end.getColumn());
+
+        byte[] row = new byte[wallBytesPerRow(nbColumn) + nbColumn];
+        for (int r = 0; r < nbRow; r++) {
+            encodeRow(grid, r, row);
+            data.write(row);
+        }
+        data.flush();
+    }
+
+    // Fills one encoded row record (wall nibbles then letters)
+    static void encodeRow(MazeGrid grid, int row, byte[] buffer) {
+        int nbColumn = grid.getNbColumn();
+        int wallBytes = wallBytesPerRow(nbColumn);
+        int first = grid.index(row, 0);
+        for (int i = 0; i < wallBytes; i++) {
+            int low = grid.getWalls(first + 2 * i);
+            int high = 2 * i + 1 < nbColumn ? grid.getWalls(first + 2 * i + 1) : 0;
+            buffer[i] = (byte) (low | (high << 4));
+        }
+        for (int c = 0; c < nbColumn; c++) {
+            buffer[wallBytes + c] = (byte) grid.getValue(first + c);
+        }
+    }
+
+    public static void writeFrame(OutputStream out, byte[] payload) throws IOException {
+        DataOutputStream data = new DataOutputStream(out);
+        data.writeInt(payload.length);
+        data.write(payload);
+        data.flush();
+    }
+
+    public static byte[] deflate(byte[] payload) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        ByteArrayOutputStream bos = new ByteArrayOutputStream(payload.length / 2 + 64);
+        try (DeflaterOutputStream out = new DeflaterOutputStream(bos, deflater)) {
+            out.write(payload);
+        } catch (IOException e) {
+            // ByteArrayOutputStream never throws
+            throw new IllegalStateException(e);
+        } finally {
+            deflater.end();
+        }
+        return bos.toByteArray();
+    }
+
+    // The payload of a deflated payload, to be read by a MazeDecoder
+    public static InputStream inflate(InputStream deflated) {
+        return new InflaterInputStream(deflated);
+    }
+
+    public static byte[] readFrame(InputStream in) throws IOException {
+        DataInputStream data = new DataInputStream(in);
+        int length = data.readInt();
+        if (length < 0 || length > MAX_FRAME_SIZE) {
+            throw new IOException("Invalid frame length: " + length);
+        }
+        byte[] payload = new byte[length];
+        data.readFully(payload);
+        return payload;
+    }
+
+    public static MazeGrid decode(byte[] payload) throws IOException {
+        return new MazeDecoder(new ByteArrayInputStream(payload)).readGrid();
+    }
+
+    // The maze of a payload with its theme: walls, letters, start and end from the payload, the words
+    // from the theme. Used to replay or re-serve a recorded maze.
+    public static Maze decode(byte[] payload, String theme) throws IOException {
+        MazeDecoder decoder = new MazeDecoder(new ByteArrayInputStream(payload));
+        Node start = new Node(decoder.getStartRow(), decoder.getStartColumn());
+        Node end = new Node(decoder.getEndRow(), decoder.getEndColumn());
+        return new Maze(decoder.readGrid(), start, end, theme);
+    }
+
+    static void checkHeader(DataInputStream data) throws IOException {
+        byte[] magic = new byte[MAGIC.length];
+        try {
+            data.readFully(magic);
+        } catch (EOFException e) {
+            throw new IOException("Truncated maze header", e);
+        }
+        if (magic[0] != MAGIC[0] || magic[1] != MAGIC[1]) {
+            throw new IOException("Not a maze payload");
+        }
+        int version = data.readUnsignedByte();
+        if (version != VERSION) {
+            throw new IOException("Unsupported maze format version: " + version);
+        }
+    }
+}
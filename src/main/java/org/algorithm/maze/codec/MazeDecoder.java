@@ -0,0 +1,99 @@
+package org.algorithm.maze.codec;
+
+import org.algorithm.components.MazeGrid;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+// Streaming decoder for the MazeCodec format.
+// The header is read on construction, rows are then pulled one at a time with readRow,
+// or all at once into a MazeGrid with readGrid.
+public class MazeDecoder {
+    private final DataInputStream in;
+    private final int nbRow;
+    private final int nbColumn;
+    private final int startRow;
+    private final int startColumn;
+    private final int endRow;
+    private final int endColumn;
+    private final byte[] rowBuffer;
+    private int nextRow;
+
+    public MazeDecoder(InputStream in) throws IOException {
+        this.in = new DataInputStream(in);
+        MazeCodec.checkHeader(this.in);
+        this.nbRow = this.in.readInt();
+        this.nbColumn = this.in.readInt();
+        if (nbRow <= 0 || nbColumn <= 0) {
+            throw new IOException("Invalid maze dimensions: " + nbRow + "x" + nbColumn);
+        }
+        this.startRow = this.in.readInt();
+        this.startColumn = this.in.readInt();
+        this.endRow = this.in.readInt();
+        this.endColumn = this.in.readInt();
+        this.rowBuffer = new byte[MazeCodec.wallBytesPerRow(nbColumn) + nbColumn];
+        this.nextRow = 0;
+    }
+
+    public int getNbRow() {
+        return nbRow;
+    }
+
+    public int getNbColumn() {
+        return nbColumn;
+    }
+
+    public int getStartRow() {
+        return startRow;
+    }
+
+    public int getStartColumn() {
+        return startColumn;
+    }
+
+    public int getEndRow() {
+        return endRow;
+    }
+
+    public int getEndColumn() {
+        return endColumn;
+    }
+
+    public boolean hasNextRow() {
+        return nextRow < nbRow;
+    }
+
+    // Reads the next row; walls and letters must hold at least nbColumn entries.
+    // Returns the index of the row that was read.
+    public int readRow(byte[] walls, char[] letters) throws IOException {
+        if (!hasNextRow()) {
+            throw new IllegalStateException("All rows have been read");
+        }
+        in.readFully(rowBuffer);
+        int wallBytes = MazeCodec.wallBytesPerRow(nbColumn);
+        for (int c = 0; c < nbColumn; c++) {
+            int packed = rowBuffer[c >> 1];
+            walls[c] = (byte) ((c & 1) == 0 ? packed & 0x0F : (packed >> 4) & 0x0F);
+            letters[c] = (char) (rowBuffer[wallBytes + c] & 0xFF);
+        }
+        return nextRow++;
+    }
+
+    // Decodes the remaining rows into a grid, every cell being part of the maze
+    public MazeGrid readGrid() throws IOException {
+        MazeGrid grid = new MazeGrid(nbRow, nbColumn);
+        byte[] walls = new byte[nbColumn];
+        char[] letters = new char[nbColumn];
+        while (hasNextRow()) {
+            int row = readRow(walls, letters);
+            for (int c = 0; c < nbColumn; c++) {
+                int index = grid.index(row, c);
+                grid.setWalls(index, walls[c]);
+                grid.setValue(index, letters[c]);
+                grid.setPartOfMaze(index, true);
+            }
+        }
+        return grid;
+    }
+}
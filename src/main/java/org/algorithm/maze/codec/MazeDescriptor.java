@@ -0,0 +1,92 @@
+package org.algorithm.maze.codec;
+
+import org.algorithm.data.DictionaryRegistry;
+import org.algorithm.maze.Maze;
+import org.algorithm.maze.MazeGenerator;
+import org.algorithm.maze.impl.dfs_algorithm.DfsAlgorithm;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+// Everything needed to generate a game maze again: the seed of its Random, the version of the
+// dictionary it drew its theme and words from, and its size. Every choice the generator makes
+// comes from the seeded Random, so the same descriptor gives the same maze, bit for bit, on any
+// JVM that has the same dictionary. 16 bytes instead of a payload of about 1.5 bytes per cell.
+//
+// Layout (big endian): seed (long), dictionary version (int), nbRow, nbColumn (unsigned shorts)
+public record MazeDescriptor(long seed, int dictionaryVersion, int nbRow, int nbColumn) {
+    public static final int SIZE = Long.BYTES + Integer.BYTES + 2 * Short.BYTES;
+    public static final int MAX_SIDE = 0xFFFF;
+
+    public MazeDescriptor {
+        if (!fits(nbRow, nbColumn)) {
+            throw new IllegalArgumentException("No descriptor for a " + nbRow + "x" + nbColumn + " maze");
+        }
+    }
+
+    // A descriptor of the maze generated from this seed with the dictionary of this process
+    public static MazeDescriptor of(long seed, int nbRow, int nbColumn) {
+        return new MazeDescriptor(seed, DictionaryRegistry.getInstance().getVersion(), nbRow, nbColumn);
+    }
+
+    public static boolean fits(int nbRow, int nbColumn) {
+        return nbRow > 0 && nbColumn > 0 && nbRow <= MAX_SIDE && nbColumn <= MAX_SIDE;
+    }
+
+    public void encode(ByteBuffer out) {
+        out.putLong(seed).putInt(dictionaryVersion).putShort((short) nbRow).putShort((short) nbColumn);
+    }
+
+    public byte[] encode() {
+        ByteBuffer out = ByteBuffer.allocate(SIZE);
+        encode(out);
+        return out.array();
+    }
+
+    // Reads a descriptor at the buffer's position
+    public static MazeDescriptor decode(ByteBuffer in) {
+        return new MazeDescriptor(in.getLong(), in.getInt(), in.getShort() & 0xFFFF, in.getShort() & 0xFFFF);
+    }
+
+    // Text form, "seed version nbRow nbColumn"
+    @Override
+    public String toString() {
+        return seed + " " + dictionaryVersion + " " + nbRow + " " + nbColumn;
+    }
+
+    // The text form back, or null when the line isn't one
+    public static MazeDescriptor parse(String line) {
+        String[] fields = line == null ? new String[0] : line.trim().split(" ");
+        if (fields.length != 4) {
+            return null;
+        }
+        try {
+            int nbRow = Integer.parseInt(fields[2]);
+            int nbColumn = Integer.parseInt(fields[3]);
+            return fits(nbRow, nbColumn)
+                    ? new MazeDescriptor(Long.parseLong(fields[0]), Integer.parseInt(fields[1]), nbRow, nbColumn)
+                    : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    // False when this process's dictionary differs from the one the maze was generated with:
+    // the maze has to be downloaded instead
+    public boolean canGenerate() {
+        return dictionaryVersion == DictionaryRegistry.getInstance().getVersion();
+    }
+
+    // Generates the maze the server did: same generator, same steps, in the same order
+    public Maze generate() {
+        if (!canGenerate()) {
+            throw new IllegalStateException("Maze generated with dictionary " + dictionaryVersion
+                    + ", this one is " + DictionaryRegistry.getInstance().getVersion());
+        }
+        MazeGenerator maze = new DfsAlgorithm(nbRow, nbColumn, null, new Random(seed));
+        maze.setStartAndEnd();
+        maze.generateMaze();
+        maze.createLoops();
+        return maze;
+    }
+}
@@ -0,0 +1,111 @@
+package org.algorithm.maze.codec;
+
+import org.algorithm.components.MazeGrid;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+// A maze cut into square tiles of TILE_SIZE cells a side, for mazes too large to send in one payload:
+// a client fetches the tiles around its position first and the rest as it needs them. Each tile is
+// encoded on its first request and cached, every later request (any player, any session sharing the
+// maze) gets the same bytes. Tiles on the last row or column of tiles are cut to the maze's edge.
+//
+// Tile layout (big endian): tile row, tile column (ints), then for every row of the tile its wall
+// nibbles packed two cells per byte and one letter byte per cell, as in a MazeCodec row
+public class MazeTiles {
+    public static final int TILE_SIZE = 64;
+    public static final int TILE_HEADER_SIZE = 2 * Integer.BYTES;
+
+    private final MazeGrid grid;
+    private final int nbTileRows;
+    private final int nbTileColumns;
+    private final AtomicReferenceArray<byte[]> tiles;
+
+    public MazeTiles(MazeGrid grid) {
+        this.grid = grid;
+        this.nbTileRows = tileCount(grid.getNbRow());
+        this.nbTileColumns = tileCount(grid.getNbColumn());
+        this.tiles = new AtomicReferenceArray<>(nbTileRows * nbTileColumns);
+    }
+
+    public static int tileCount(int nbCells) {
+        return (nbCells + TILE_SIZE - 1) / TILE_SIZE;
+    }
+
+    public int getNbTileRows() {
+        return nbTileRows;
+    }
+
+    public int getNbTileColumns() {
+        return nbTileColumns;
+    }
+
+    public boolean contains(int tileRow, int tileColumn) {
+        return tileRow >= 0 && tileColumn >= 0 && tileRow < nbTileRows && tileColumn < nbTileColumns;
+    }
+
+    // The encoded tile, shared: do not modify
+    public byte[] tile(int tileRow, int tileColumn) {
+        if (!contains(tileRow, tileColumn)) {
+            throw new IndexOutOfBoundsException("No tile " + tileRow + "," + tileColumn);
+        }
+        int index = tileRow * nbTileColumns + tileColumn;
+        byte[] tile = tiles.get(index);
+        if (tile == null) {
+            // Two first requests may both encode it, the bytes are the same and one copy is kept
+            tiles.compareAndSet(index, null, encode(tileRow, tileColumn));
+            tile = tiles.get(index);
+        }
+        return tile;
+    }
+
+    private byte[] encode(int tileRow, int tileColumn) {
+        int firstRow = tileRow * TILE_SIZE;
+        int firstColumn = tileColumn * TILE_SIZE;
+        int height = Math.min(TILE_SIZE, grid.getNbRow() - firstRow);
+        int width = Math.min(TILE_SIZE, grid.getNbColumn() - firstColumn);
+        int wallBytes = MazeCodec.wallBytesPerRow(width);
+        ByteBuffer out = ByteBuffer.allocate(TILE_HEADER_SIZE + height * (wallBytes + width));
+        out.putInt(tileRow).putInt(tileColumn);
+        for (int r = firstRow; r < firstRow + height; r++) {
+            int first = grid.index(r, firstColumn);
+            for (int i = 0; i < wallBytes; i++) {
+                int low = grid.getWalls(first + 2 * i);
+                int high = 2 * i + 1 < width ? grid.getWalls(first + 2 * i + 1) : 0;
+                out.put((byte) (low | (high << 4)));
+            }
+            for (int c = 0; c < width; c++) {
+                out.put((byte) grid.getValue(first + c));
+            }
+        }
+        return out.array();
+    }
+
+    // Copies the tile at the buffer's position into the client's grid, which has the maze's size.
+    // Returns the tile's index, tile row * tile columns + tile column.
+    public static int decode(ByteBuffer in, MazeGrid grid) {
+        int tileRow = in.getInt();
+        int tileColumn = in.getInt();
+        int firstRow = tileRow * TILE_SIZE;
+        int firstColumn = tileColumn * TILE_SIZE;
+        if (!grid.contains(firstRow, firstColumn)) {
+            throw new IllegalArgumentException("Tile " + tileRow + "," + tileColumn + " is off the maze");
+        }
+        int height = Math.min(TILE_SIZE, grid.getNbRow() - firstRow);
+        int width = Math.min(TILE_SIZE, grid.getNbColumn() - firstColumn);
+        int wallBytes = MazeCodec.wallBytesPerRow(width);
+        for (int r = firstRow; r < firstRow + height; r++) {
+            int first = grid.index(r, firstColumn);
+            int walls = in.position();
+            int letters = walls + wallBytes;
+            for (int c = 0; c < width; c++) {
+                int packed = in.get(walls + (c >> 1));
+                grid.setWalls(first + c, (c & 1) == 0 ? packed & 0x0F : (packed >> 4) & 0x0F);
+                grid.setValue(first + c, (char) (in.get(letters + c) & 0xFF));
+                grid.setPartOfMaze(first + c, true);
+            }
+            in.position(letters + width);
+        }
+        return tileRow * tileCount(grid.getNbColumn()) + tileColumn;
+    }
+}
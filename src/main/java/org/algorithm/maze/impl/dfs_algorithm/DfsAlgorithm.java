@@ -1,76 +1,80 @@
 package org.algorithm.maze.impl.dfs_algorithm;
 
-import org.algorithm.components.Node;
-import org.algorithm.maze.Maze;
+import org.algorithm.maze.MazeGenerator;
 
-import java.util.List;
-import java.util.Stack;
+import java.util.Random;
 
-public class DfsAlgorithm extends Maze {
+public class DfsAlgorithm extends MazeGenerator {
     public DfsAlgorithm(int nbRow, int nbColumn) {
         super(nbRow, nbColumn);
     }
+    public DfsAlgorithm(int nbRow, int nbColumn, String theme) {
+        super(nbRow, nbColumn, theme);
+    }
+    public DfsAlgorithm(int nbRow, int nbColumn, String theme, Random random) {
+        super(nbRow, nbColumn, theme, random);
+    }
 
     @Override
     public void generateMaze() {
         setStartAndEnd(); // Set the starting and ending points of the maze
-        Stack<Node> stack = new Stack<>();
-        Stack<Character> injected = new Stack<>();
-        Stack<Character> toInject = new Stack<>();
+        int[] stack = new int[grid.size()];
+        int top = 0;
+        // Characters written along the current branch, and those freed by backtracking
+        char[] injected = new char[grid.size()];
+        char[] toInject = new char[grid.size()];
+        int toInjectTop = 0;
+        int[] neighbors = new int[4];
 
         int index = 0;
         int word = 0;
         String currentWord = dictionary.get(word);
-        Node current;
+        int current;
         char currentChar;
 
         do {
-            if (stack.isEmpty()) { // Initialize with the starting node
-                current = maze[start.getRow()][start.getColumn()];
+            if (top == 0) { // Initialize with the starting node
+                current = grid.index(start.getRow(), start.getColumn());
                 currentChar = currentWord.charAt(index);
-                injected.push(currentChar);
-                current.setValue(currentChar);
+                injected[top] = currentChar;
+                grid.setValue(current, currentChar);
                 index++;
-                stack.push(current);
-                maze[start.getRow()][start.getColumn()].setPartOfMaze(true);
+                stack[top++] = current;
+                grid.setPartOfMaze(current, true);
             } else {
-                current = stack.peek();
+                current = stack[top - 1];
             }
 
-            List<Node> unvisitedNeighbors = getUnvisitedNeighbors(getNeighbors(maze[current.getRow()][current.getColumn()]));
-            if (!unvisitedNeighbors.isEmpty()) { // Move to an unvisited neighbor
-                Node nextCell = unvisitedNeighbors.get(random.nextInt(unvisitedNeighbors.size()));
+            int nbUnvisited = getNeighbors(current, neighbors, false);
+            if (nbUnvisited > 0) { // Move to an unvisited neighbor
+                int nextCell = neighbors[random.nextInt(nbUnvisited)];
                 removeWallBetween(current, nextCell);
-                stack.push(nextCell);
-                maze[nextCell.getRow()][nextCell.getColumn()].setPartOfMaze(true);
+                stack[top++] = nextCell;
+                grid.setPartOfMaze(nextCell, true);
                 current = nextCell;
 
                 // Inject characters from the current word
-                if (toInject.isEmpty()) {
+                if (toInjectTop == 0) {
                     currentChar = currentWord.charAt(index);
                     index++;
                 } else {
-                    currentChar = toInject.pop();
+                    currentChar = toInject[--toInjectTop];
                 }
-                injected.push(currentChar);
-                current.setValue(currentChar);
+                injected[top - 1] = currentChar;
+                grid.setValue(current, currentChar);
             } else { // Backtrack when no unvisited neighbors remain
-                current = stack.pop();
-                currentChar = injected.pop();
-                toInject.push(currentChar);
+                top--;
+                currentChar = injected[top];
+                toInject[toInjectTop++] = currentChar;
             }
 
-            // Switch to the next word if needed
-            if (word < dictionary.size() - 1) {
-                if (index == currentWord.length()) {
-                    word++;
-                    currentWord = dictionary.get(word);
-                    index = 0;
-                }
-            } else { // If all words are used, repopulate the dictionary
-                dictionary = mazePopulator.getData();
+            // Switch to the next word if needed, starting over once all words are used
+            if (index == currentWord.length()) {
+                word = word < dictionary.size() - 1 ? word + 1 : 0;
+                currentWord = dictionary.get(word);
+                index = 0;
             }
 
-        } while (!stack.isEmpty());
+        } while (top > 0);
     }
 }
@@ -0,0 +1,49 @@
+package org.algorithm.maze.impl.prims_algorithm;
+
+import java.util.Arrays;
+import java.util.Random;
+
+// Set of grid indexes with O(1) add, contains, random pick and remove.
+// Cells live densely in an array; each cell remembers its slot so removal swaps the last cell into it.
+class Frontier {
+    private final int[] cells;
+    // Slot of each cell in cells, -1 when the cell is not in the frontier
+    private final int[] slots;
+    private int size = 0;
+
+    Frontier(int nbCells) {
+        this.cells = new int[nbCells];
+        this.slots = new int[nbCells];
+        Arrays.fill(slots, -1);
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    boolean contains(int cell) {
+        return slots[cell] >= 0;
+    }
+
+    void add(int cell) {
+        if (slots[cell] < 0) {
+            slots[cell] = size;
+            cells[size++] = cell;
+        }
+    }
+
+    int random(Random random) {
+        return cells[random.nextInt(size)];
+    }
+
+    void remove(int cell) {
+        int slot = slots[cell];
+        if (slot < 0) {
+            return;
+        }
+        int last = cells[--size];
+        cells[slot] = last;
+        slots[last] = slot;
+        slots[cell] = -1;
+    }
+}
@@ -1,54 +1,65 @@
 package org.algorithm.maze.impl.prims_algorithm;
 
 import org.algorithm.components.Node;
-import org.algorithm.maze.Maze;
+import org.algorithm.maze.MazeGenerator;
 import org.algorithm.maze_solver.MazeSolver;
 import org.algorithm.maze_solver.impl.BfsAlgorithm;
 
-import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Random;
 
-public class PrimsAlgorithm extends Maze {
+public class PrimsAlgorithm extends MazeGenerator {
     // Solver used to find all paths in the maze
     private final MazeSolver solver;
-    // List to store all found paths
-    private List<List<Node>> paths;
+    // Paths used to lay out the dictionary words
+    private static final long MAX_POPULATED_PATHS = 1_000;
 
     public PrimsAlgorithm(int nbRow, int nbColumn) {
-        super(nbRow, nbColumn);
+        this(nbRow, nbColumn, null);
+    }
+
+    public PrimsAlgorithm(int nbRow, int nbColumn, String theme) {
+        this(nbRow, nbColumn, theme, new Random());
+    }
+
+    public PrimsAlgorithm(int nbRow, int nbColumn, String theme, Random random) {
+        super(nbRow, nbColumn, theme, random);
         solver = new BfsAlgorithm();
-        paths = new ArrayList<>();
     }
 
     @Override
     public void generateMaze() {
-        Node current = start;
-        List<Node> frontier = new ArrayList<>();
+        int current = grid.index(start.getRow(), start.getColumn());
+        Frontier frontier = new Frontier(grid.size());
+        int[] neighbors = new int[4];
+        int[] visitedNeighbors = new int[4];
         // Mark the starting node as part of the maze
-        current.setPartOfMaze(true);
+        grid.setPartOfMaze(current, true);
         frontier.add(current);
 
         do {
-            // Select a random node from the frontier list
-            current = frontier.get(random.nextInt(frontier.size()));
+            // Select a random node from the frontier
+            current = frontier.random(random);
             // Set a random character as the node's value (A-Z)
-            maze[current.getRow()][current.getColumn()].setValue((char) (random.nextInt(26) + 'A'));
-            maze[current.getRow()][current.getColumn()].setPartOfMaze(true);
-
-            // Retrieve already visited neighbors of the current node
-            List<Node> visitedNeighbors = getVisitedNeighbors(getNeighbors(current));
-            if (!visitedNeighbors.isEmpty()) {
-                // Connect current node to one random visited neighbor by removing the wall between them
-                Node neighbor = visitedNeighbors.get(random.nextInt(visitedNeighbors.size()));
-                removeWallBetween(maze[current.getRow()][current.getColumn()], maze[neighbor.getRow()][neighbor.getColumn()]);
-            }
+            grid.setValue(current, (char) (random.nextInt(26) + 'A'));
+            grid.setPartOfMaze(current, true);
 
-            // Add all unvisited neighbors to the frontier list
-            for (Node neighbor : getNeighbors(current)) {
-                if (!neighbor.isPartOfMaze() && !frontier.contains(neighbor)) {
+            // Split the neighbors: visited ones can be connected to, the others join the frontier
+            int nbNeighbors = getNeighbors(current, neighbors);
+            int nbVisited = 0;
+            for (int i = 0; i < nbNeighbors; i++) {
+                int neighbor = neighbors[i];
+                if (grid.isPartOfMaze(neighbor)) {
+                    visitedNeighbors[nbVisited++] = neighbor;
+                } else {
                     frontier.add(neighbor);
                 }
             }
+            if (nbVisited > 0) {
+                // Connect current node to one random visited neighbor by removing the wall between them
+                removeWallBetween(current, visitedNeighbors[random.nextInt(nbVisited)]);
+            }
 
             // Remove the current node from the frontier
             frontier.remove(current);
@@ -60,31 +71,24 @@ public class PrimsAlgorithm extends Maze {
         int index = 0;   // Character index within the current word
         String word = defaultDictionary.get(nb);
 
-        // Retrieve all paths in the maze using the BFS solver
-        paths = solver.getAllPaths(maze, nbRow, nbColumn, start, end);
-        System.out.println("Number of paths found : " + paths.size());
-
-        // Fill in the maze with characters from the dictionary along each found path
-        for (List<Node> path : paths) {
-            for (Node node : path) {
+        // Fill in the maze with characters from the dictionary along each path, one path at a time
+        long nbPaths = 0;
+        Iterator<List<Node>> paths = solver.streamAllPaths(grid, start, end, MAX_POPULATED_PATHS, grid.size()).iterator();
+        while (paths.hasNext()) {
+            for (Node node : paths.next()) {
                 // If the current word is exhausted, move to the next word
                 if (index >= word.length()) {
-                    if (nb < defaultDictionary.size() - 1) {
-                        nb++;
-                        word = defaultDictionary.get(nb);
-                        index = 0;
-                    } else {
-                        // If we've reached the end of the dictionary, repopulate it
-                        defaultDictionary = mazePopulator.getData();
-                        nb = 0;
-                        word = defaultDictionary.get(nb);
-                        index = 0;
-                    }
+                    // Start over from the first word once the whole dictionary has been used
+                    nb = nb < defaultDictionary.size() - 1 ? nb + 1 : 0;
+                    word = defaultDictionary.get(nb);
+                    index = 0;
                 }
                 // Set the node's value to the current character of the word
-                maze[node.getRow()][node.getColumn()].setValue(word.charAt(index));
+                grid.setValue(grid.index(node.getRow(), node.getColumn()), word.charAt(index));
                 index++;
             }
+            nbPaths++;
         }
+        System.out.println("Number of paths found : " + nbPaths);
     }
 }
@@ -0,0 +1,125 @@
+package org.algorithm.maze_solver;
+
+import org.algorithm.components.MazeGrid;
+import org.algorithm.components.Node;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Moves needed from every cell to the end, and the first move of a shortest path, filled by a single
+// reverse breadth first search from the end. Same move rules as the solvers (8 directions, walls,
+// '#' cells can't be entered). Immutable once built, so both players of a session can share it.
+// Only valid for the walls and values the grid had when it was built.
+public final class DistanceField {
+    private final MazeGrid grid;
+    private final int endIndex;
+    // Moves to the end, -1 when the end can't be reached from the cell
+    private final int[] distance;
+    // MazeGrid direction of the first move towards the end, -1 at the end or when unreachable
+    private final byte[] nextDirection;
+
+    private DistanceField(MazeGrid grid, int endIndex, int[] distance, byte[] nextDirection) {
+        this.grid = grid;
+        this.endIndex = endIndex;
+        this.distance = distance;
+        this.nextDirection = nextDirection;
+    }
+
+    public static DistanceField build(MazeGrid grid, Node end) {
+        int size = grid.size();
+        int[] distance = new int[size];
+        byte[] nextDirection = new byte[size];
+        Arrays.fill(distance, -1);
+        Arrays.fill(nextDirection, (byte) -1);
+        int endIndex = grid.index(end.getRow(), end.getColumn());
+        distance[endIndex] = 0;
+        if (grid.getValue(endIndex) == '#') {
+            // Nothing can move onto the end
+            return new DistanceField(grid, endIndex, distance, nextDirection);
+        }
+
+        int nbColumn = grid.getNbColumn();
+        int[] queue = new int[size];
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = endIndex;
+        while (head < tail) {
+            int current = queue[head++];
+            int row = current / nbColumn;
+            int column = current - row * nbColumn;
+            for (int i = 0; i < 8; i++) {
+                // previous moves into current in the opposite direction
+                int previousRow = row + MazeGrid.D_ROW[i];
+                int previousColumn = column + MazeGrid.D_COL[i];
+                int direction = (i + 4) % 8;
+                if (!grid.contains(previousRow, previousColumn) || !grid.canMove(previousRow, previousColumn, direction)) {
+                    continue;
+                }
+                int previous = previousRow * nbColumn + previousColumn;
+                if (distance[previous] >= 0) {
+                    continue;
+                }
+                distance[previous] = distance[current] + 1;
+                nextDirection[previous] = (byte) direction;
+                // A '#' cell can be left (a player may start on it) but never entered
+                if (grid.getValue(previous) != '#') {
+                    queue[tail++] = previous;
+                }
+            }
+        }
+        return new DistanceField(grid, endIndex, distance, nextDirection);
+    }
+
+    public int getDistance(int row, int column) {
+        return distance[grid.index(row, column)];
+    }
+
+    // Cells on the shortest path from the cell (both ends included), 0 when unreachable
+    public int getPathLength(int row, int column) {
+        return getDistance(row, column) + 1;
+    }
+
+    public boolean isReachable(int row, int column) {
+        return getDistance(row, column) >= 0;
+    }
+
+    // Direction of the best next step, or -1 at the end or when the end can't be reached
+    public int getNextDirection(int row, int column) {
+        return nextDirection[grid.index(row, column)];
+    }
+
+    // Cell of the best next step, or null at the end or when the end can't be reached
+    public Node getNextStep(int row, int column) {
+        int direction = getNextDirection(row, column);
+        if (direction < 0) {
+            return null;
+        }
+        return grid.node(row + MazeGrid.D_ROW[direction], column + MazeGrid.D_COL[direction]);
+    }
+
+    // True when the move is legal and brings the player one move closer to the end
+    public boolean isOptimalMove(int fromRow, int fromColumn, int toRow, int toColumn) {
+        int from = getDistance(fromRow, fromColumn);
+        return from > 0
+                && grid.canMove(fromRow, fromColumn, toRow - fromRow, toColumn - fromColumn)
+                && getDistance(toRow, toColumn) == from - 1
+                && grid.getValue(grid.index(toRow, toColumn)) != '#';
+    }
+
+    // A shortest path from the cell to the end, following the next steps
+    public List<Node> getPath(int row, int column) {
+        int cell = grid.index(row, column);
+        if (distance[cell] < 0) {
+            return List.of();
+        }
+        List<Node> path = new ArrayList<>(distance[cell] + 1);
+        path.add(grid.node(cell));
+        while (cell != endIndex) {
+            int direction = nextDirection[cell];
+            cell += MazeGrid.D_ROW[direction] * grid.getNbColumn() + MazeGrid.D_COL[direction];
+            path.add(grid.node(cell));
+        }
+        return path;
+    }
+}
@@ -1,15 +1,54 @@
 package org.algorithm.maze_solver;
 
+import org.algorithm.components.MazeGrid;
 import org.algorithm.components.Node;
+import org.algorithm.data.WordAutomaton;
 import org.algorithm.maze.Maze;
 
+import java.util.BitSet;
 import java.util.List;
-import java.util.ListIterator;
-import java.util.Set;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 public interface MazeSolver {
-    List<Node> getShortestPath(Node[][] maze,int nbRow,int nbColumn,Node start,Node end);
-    List<List<Node>> getAllPaths(Node[][] maze,int nbRow,int nbColumn,Node start,Node end);
-     int updateScore(List<Node> currentPathNodes, Maze mazeGenerator, Set<String> foundWords,int score);
+    List<Node> getShortestPath(MazeGrid grid,Node start,Node end);
+    List<List<Node>> getAllPaths(MazeGrid grid,Node start,Node end);
 
+    // Number of cells on the shortest path (start and end included), 0 when the end can't be reached
+    default int getShortestPathLength(MazeGrid grid, Node start, Node end) {
+        List<Node> path = getShortestPath(grid, start, end);
+        return path == null ? 0 : path.size();
+    }
+
+    // Lazily enumerates simple start-to-end paths, at most maxPaths of them and none longer than maxLength cells.
+    // The stream can be made parallel; paths come in no particular order.
+    default Stream<List<Node>> streamAllPaths(MazeGrid grid, Node start, Node end, long maxPaths, int maxLength) {
+        return StreamSupport.stream(new PathSpliterator(grid, start, end, maxPaths, maxLength), false);
+    }
+
+    // Scans the path once with the maze's word automaton and adds the length of every
+    // dictionary word not found before. foundWords holds word ids from the automaton.
+    default int updateScore(List<Node> currentPathNodes, Maze mazeGenerator, BitSet foundWords, int score) {
+        WordAutomaton automaton = mazeGenerator.getWordAutomaton();
+        int gained = 0;
+        int state = automaton.root();
+        for (Node node : currentPathNodes) {
+            state = automaton.next(state, node.getValue());
+            for (int match = automaton.firstMatch(state); match >= 0; match = automaton.nextMatch(match)) {
+                int wordId = automaton.wordAt(match);
+                if (!foundWords.get(wordId)) {
+                    foundWords.set(wordId);
+                    int points = automaton.wordLength(wordId);
+                    gained += points;
+                    System.out.println("Mot trouvé: \"" + automaton.word(wordId) + "\" (" + points + " points)");
+                }
+            }
+        }
+
+        // Log total points earned this round
+        if (gained > 0) {
+            System.out.println("Total gagné ce tour: " + gained + " points");
+        }
+        return score + gained;
+    }
 }
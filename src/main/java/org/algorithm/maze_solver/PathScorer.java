@@ -0,0 +1,65 @@
+package org.algorithm.maze_solver;
+
+import org.algorithm.data.WordAutomaton;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+// Incremental counterpart of MazeSolver.updateScore for one player path.
+// A push only looks at the words ending on the new cell (the automaton output chain, bounded by
+// the longest dictionary word), a pop restores the automaton state saved for the previous cell.
+// Words stay found once scored, exactly like a full rescan of the path would behave.
+public class PathScorer {
+    private static final Logger logger = Logger.getLogger(PathScorer.class.getName());
+
+    private final WordAutomaton automaton;
+    private final BitSet foundWords = new BitSet();
+    // Automaton state after each cell of the path, acts as the undo log for pops
+    private int[] states = new int[64];
+    private int depth = 0;
+
+    public PathScorer(WordAutomaton automaton) {
+        this.automaton = automaton;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    public BitSet getFoundWords() {
+        return foundWords;
+    }
+
+    // Appends a cell to the path and returns the points for the words it completes
+    public int push(char value) {
+        int state = automaton.next(depth == 0 ? automaton.root() : states[depth - 1], value);
+        if (depth == states.length) {
+            states = Arrays.copyOf(states, depth * 2);
+        }
+        states[depth++] = state;
+
+        int gained = 0;
+        for (int match = automaton.firstMatch(state); match >= 0; match = automaton.nextMatch(match)) {
+            int wordId = automaton.wordAt(match);
+            if (!foundWords.get(wordId)) {
+                foundWords.set(wordId);
+                int points = automaton.wordLength(wordId);
+                gained += points;
+                // Every scoring move goes through here, keep the word lookup off it unless asked for
+                if (logger.isLoggable(Level.FINE)) {
+                    logger.fine("Mot trouvé: \"" + automaton.word(wordId) + "\" (" + points + " points)");
+                }
+            }
+        }
+        return gained;
+    }
+
+    // Removes the last cell of the path
+    public void pop() {
+        if (depth > 0) {
+            depth--;
+        }
+    }
+}
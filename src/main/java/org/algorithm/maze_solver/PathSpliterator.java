@@ -0,0 +1,208 @@
+package org.algorithm.maze_solver;
+
+import org.algorithm.components.MazeGrid;
+import org.algorithm.components.Node;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+// Lazy enumeration of the simple start-to-end paths of a maze (8 directions, walls respected).
+// Depth first with backtracking: the current path lives in an int array, visited cells in a BitSet,
+// and each yielded path is built only when it is handed to the consumer.
+// trySplit hands the untried branches of the shallowest open cell to a new spliterator, so a
+// parallel stream spreads whole subtrees over the fork-join pool. Paths come in no particular order.
+public class PathSpliterator implements Spliterator<List<Node>> {
+    private final MazeGrid grid;
+    private final int end;
+    private final int maxLength;
+    // Paths still allowed to be yielded, shared by every split
+    private final AtomicLong budget;
+    // path[0..depth) is the current path, as grid indexes
+    private final int[] path;
+    // Directions not yet tried from each cell of the path, one bit per MazeGrid direction
+    private final int[] remaining;
+    private final BitSet visited;
+    private int depth;
+    // Share of the path budget this spliterator stands for, halved on every split so that
+    // fork-join stops splitting after a few tasks per worker
+    private long estimate;
+    // Set when start and end are the same cell: the one-cell path is the only one
+    private boolean singleCell;
+
+    // maxPaths caps the number of paths over all splits, maxLength the number of cells in a path
+    public PathSpliterator(MazeGrid grid, Node start, Node end, long maxPaths, int maxLength) {
+        this.grid = grid;
+        this.end = grid.index(end.getRow(), end.getColumn());
+        this.maxLength = Math.min(maxLength, grid.size());
+        this.budget = new AtomicLong(maxPaths);
+        this.estimate = maxPaths;
+        this.path = new int[Math.max(this.maxLength, 1)];
+        this.remaining = new int[path.length];
+        this.visited = new BitSet(grid.size());
+        if (this.maxLength > 0) {
+            int first = grid.index(start.getRow(), start.getColumn());
+            path[0] = first;
+            singleCell = first == this.end;
+            visited.set(first);
+            remaining[0] = singleCell ? 0 : openDirections(first);
+            depth = 1;
+        }
+    }
+
+    // Split off the given branches of path[0..depth)
+    private PathSpliterator(PathSpliterator parent, int depth, int branches, long estimate) {
+        this.grid = parent.grid;
+        this.end = parent.end;
+        this.maxLength = parent.maxLength;
+        this.budget = parent.budget;
+        this.path = new int[parent.path.length];
+        this.remaining = new int[parent.path.length];
+        this.visited = new BitSet(grid.size());
+        for (int i = 0; i < depth; i++) {
+            path[i] = parent.path[i];
+            visited.set(path[i]);
+        }
+        remaining[depth - 1] = branches;
+        this.depth = depth;
+        this.estimate = estimate;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super List<Node>> action) {
+        if (singleCell) {
+            singleCell = false;
+            depth = 0;
+            return yieldPath(1, action);
+        }
+        while (depth > 0) {
+            if (budget.get() <= 0) {
+                depth = 0;
+                return false;
+            }
+            int top = depth - 1;
+            int directions = remaining[top];
+            if (directions == 0 || depth == maxLength) {
+                backtrack();
+                continue;
+            }
+            int direction = Integer.numberOfTrailingZeros(directions);
+            remaining[top] = directions & ~(1 << direction);
+
+            int cell = path[top];
+            int row = grid.rowOf(cell);
+            int column = grid.columnOf(cell);
+            if (!grid.canMove(row, column, direction)) {
+                continue;
+            }
+            int next = grid.index(row + MazeGrid.D_ROW[direction], column + MazeGrid.D_COL[direction]);
+            if (visited.get(next)) {
+                continue;
+            }
+            if (next == end) {
+                path[depth] = next;
+                return yieldPath(depth + 1, action);
+            }
+            push(next);
+        }
+        return false;
+    }
+
+    // Directions leading out of the cell to a cell not yet on the path
+    private int openDirections(int cell) {
+        int row = grid.rowOf(cell);
+        int column = grid.columnOf(cell);
+        int directions = 0;
+        for (int direction = 0; direction < MazeGrid.D_ROW.length; direction++) {
+            if (grid.canMove(row, column, direction)
+                    && !visited.get(grid.index(row + MazeGrid.D_ROW[direction], column + MazeGrid.D_COL[direction]))) {
+                directions |= 1 << direction;
+            }
+        }
+        return directions;
+    }
+
+    private void push(int cell) {
+        path[depth] = cell;
+        visited.set(cell);
+        remaining[depth] = openDirections(cell);
+        depth++;
+    }
+
+    private void backtrack() {
+        depth--;
+        visited.clear(path[depth]);
+    }
+
+    private boolean yieldPath(int length, Consumer<? super List<Node>> action) {
+        if (budget.getAndDecrement() <= 0) {
+            depth = 0;
+            return false;
+        }
+        List<Node> nodes = new ArrayList<>(length);
+        for (int i = 0; i < length; i++) {
+            nodes.add(grid.node(path[i]));
+        }
+        action.accept(nodes);
+        return true;
+    }
+
+    @Override
+    public Spliterator<List<Node>> trySplit() {
+        if (budget.get() <= 0 || estimate <= 1) {
+            return null;
+        }
+        for (int steps = 0; steps < maxLength; steps++) {
+            // The shallowest cell with untried branches holds the largest share of the remaining work.
+            // A cell's last branch can only go if this spliterator keeps a deeper one to work on.
+            for (int i = 0; i < depth; i++) {
+                int directions = remaining[i];
+                int count = Integer.bitCount(directions);
+                if (count >= 2 || (count == 1 && i < depth - 1)) {
+                    // Give away the upper half of the branches
+                    int given = directions;
+                    for (int kept = 0; kept < count / 2; kept++) {
+                        given &= given - 1;
+                    }
+                    remaining[i] = directions & ~given;
+                    estimate -= estimate / 2;
+                    return new PathSpliterator(this, i + 1, given, estimate);
+                }
+            }
+            // Only one branch left: follow the corridor until it forks
+            if (!descend()) {
+                return null;
+            }
+        }
+        return null;
+    }
+
+    // Moves into the single remaining branch of the last cell, unless that yields a path or leads nowhere
+    private boolean descend() {
+        if (depth == 0 || depth == maxLength || Integer.bitCount(remaining[depth - 1]) != 1) {
+            return false;
+        }
+        int cell = path[depth - 1];
+        int direction = Integer.numberOfTrailingZeros(remaining[depth - 1]);
+        int next = grid.index(grid.rowOf(cell) + MazeGrid.D_ROW[direction], grid.columnOf(cell) + MazeGrid.D_COL[direction]);
+        if (next == end || visited.get(next)) {
+            return false;
+        }
+        remaining[depth - 1] = 0;
+        push(next);
+        return true;
+    }
+
+    @Override
+    public long estimateSize() {
+        return depth == 0 ? 0 : estimate;
+    }
+
+    @Override
+    public int characteristics() {
+        return NONNULL;
+    }
+}
@@ -0,0 +1,39 @@
+package org.algorithm.maze_solver;
+
+import org.algorithm.maze_solver.impl.AStarAlgorithm;
+import org.algorithm.maze_solver.impl.BidirectionalBfsAlgorithm;
+import org.algorithm.maze_solver.impl.DijkstraAlgorithm;
+import org.algorithm.maze_solver.impl.GridBfsAlgorithm;
+
+// Shortest path solvers. Main's shortest path printout uses the one named by the maze.solver system
+// property (e.g. -Dmaze.solver=astar), SolverBenchmark compares them all.
+// All of them return paths of the same length.
+public enum SolverType {
+    DIJKSTRA,
+    // Plain breadth first search, the default
+    BFS,
+    // Goal directed, expands the cells towards the end first
+    ASTAR,
+    // Searches from both ends and meets in the middle
+    BIDIRECTIONAL;
+
+    public static final String PROPERTY = "maze.solver";
+
+    public MazeSolver create() {
+        return switch (this) {
+            case DIJKSTRA -> new DijkstraAlgorithm();
+            case BFS -> new GridBfsAlgorithm();
+            case ASTAR -> new AStarAlgorithm();
+            case BIDIRECTIONAL -> new BidirectionalBfsAlgorithm();
+        };
+    }
+
+    public static SolverType fromProperty() {
+        String name = System.getProperty(PROPERTY, BFS.name());
+        try {
+            return valueOf(name.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown solver: " + name + " (expected dijkstra, bfs, astar or bidirectional)");
+        }
+    }
+}
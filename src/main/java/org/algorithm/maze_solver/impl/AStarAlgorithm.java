@@ -0,0 +1,178 @@
+package org.algorithm.maze_solver.impl;
+
+import org.algorithm.components.MazeGrid;
+import org.algorithm.components.Node;
+import org.algorithm.maze_solver.MazeSolver;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+// Goal directed shortest path. Every move costs 1, diagonals included, so the Chebyshev distance
+// max(|dRow|, |dCol|) never overestimates and the paths have the same length as DijkstraAlgorithm's.
+// The open set is a binary heap of (f, h) keys with lazy deletion; g, parents and closed marks are
+// int arrays reused per thread like GridBfsAlgorithm's.
+public class AStarAlgorithm implements MazeSolver {
+
+    private static final class Scratch {
+        int[] g = new int[0];
+        int[] parent = new int[0];
+        // Cell is open or closed in the current search when its mark is stamp or stamp + 1
+        int[] mark = new int[0];
+        int stamp = 0;
+        // Heap entries: key = f << 32 | h, so equal f prefers the cell closest to the goal
+        long[] heapKeys = new long[16];
+        int[] heapCells = new int[16];
+        int heapSize = 0;
+
+        void ensureCapacity(int size) {
+            if (g.length < size) {
+                g = new int[size];
+                parent = new int[size];
+                mark = new int[size];
+                stamp = 0;
+            }
+            heapSize = 0;
+        }
+
+        // Two marks per search: stamp means open, stamp + 1 means closed
+        int nextStamp() {
+            stamp += 2;
+            if (stamp >= Integer.MAX_VALUE - 2) {
+                Arrays.fill(mark, 0);
+                stamp = 2;
+            }
+            return stamp;
+        }
+
+        void push(long key, int cell) {
+            if (heapSize == heapKeys.length) {
+                heapKeys = Arrays.copyOf(heapKeys, heapSize * 2);
+                heapCells = Arrays.copyOf(heapCells, heapSize * 2);
+            }
+            int i = heapSize++;
+            while (i > 0) {
+                int up = (i - 1) >>> 1;
+                if (heapKeys[up] <= key) {
+                    break;
+                }
+                heapKeys[i] = heapKeys[up];
+                heapCells[i] = heapCells[up];
+                i = up;
+            }
+            heapKeys[i] = key;
+            heapCells[i] = cell;
+        }
+
+        // Removes the smallest entry and returns its cell
+        int pop() {
+            int top = heapCells[0];
+            long key = heapKeys[--heapSize];
+            int cell = heapCells[heapSize];
+            int i = 0;
+            int half = heapSize >>> 1;
+            while (i < half) {
+                int child = 2 * i + 1;
+                if (child + 1 < heapSize && heapKeys[child + 1] < heapKeys[child]) {
+                    child++;
+                }
+                if (key <= heapKeys[child]) {
+                    break;
+                }
+                heapKeys[i] = heapKeys[child];
+                heapCells[i] = heapCells[child];
+                i = child;
+            }
+            heapKeys[i] = key;
+            heapCells[i] = cell;
+            return top;
+        }
+    }
+
+    private static final ThreadLocal<Scratch> SCRATCH = ThreadLocal.withInitial(Scratch::new);
+
+    @Override
+    public List<Node> getShortestPath(MazeGrid grid, Node start, Node end) {
+        Scratch scratch = SCRATCH.get();
+        int target = search(grid, start, end, scratch);
+        if (target < 0) {
+            return List.of();
+        }
+        List<Node> path = new ArrayList<>(scratch.g[target] + 1);
+        for (int cell = target; cell >= 0; cell = scratch.parent[cell]) {
+            path.add(grid.node(cell));
+        }
+        Collections.reverse(path);
+        return path;
+    }
+
+    @Override
+    public int getShortestPathLength(MazeGrid grid, Node start, Node end) {
+        Scratch scratch = SCRATCH.get();
+        int target = search(grid, start, end, scratch);
+        return target < 0 ? 0 : scratch.g[target] + 1;
+    }
+
+    private int search(MazeGrid grid, Node start, Node end, Scratch scratch) {
+        scratch.ensureCapacity(grid.size());
+        int[] g = scratch.g;
+        int[] parent = scratch.parent;
+        int[] mark = scratch.mark;
+        int open = scratch.nextStamp();
+        int closed = open + 1;
+
+        int nbColumn = grid.getNbColumn();
+        int endRow = end.getRow();
+        int endColumn = end.getColumn();
+        int source = grid.index(start.getRow(), start.getColumn());
+        int target = grid.index(endRow, endColumn);
+        g[source] = 0;
+        parent[source] = -1;
+        mark[source] = open;
+        int h = Math.max(Math.abs(start.getRow() - endRow), Math.abs(start.getColumn() - endColumn));
+        scratch.push(key(h, h), source);
+
+        while (scratch.heapSize > 0) {
+            int current = scratch.pop();
+            if (mark[current] == closed) {
+                // Stale entry, the cell was reached again with a lower cost
+                continue;
+            }
+            if (current == target) {
+                return current;
+            }
+            mark[current] = closed;
+            int row = current / nbColumn;
+            int column = current - row * nbColumn;
+            int nextCost = g[current] + 1;
+            for (int i = 0; i < 8; i++) {
+                if (!grid.canMove(row, column, i)) {
+                    continue;
+                }
+                int next = current + MazeGrid.D_ROW[i] * nbColumn + MazeGrid.D_COL[i];
+                if (mark[next] == closed || grid.getValue(next) == '#') {
+                    continue;
+                }
+                if (mark[next] == open && g[next] <= nextCost) {
+                    continue;
+                }
+                mark[next] = open;
+                g[next] = nextCost;
+                parent[next] = current;
+                int nextH = Math.max(Math.abs(row + MazeGrid.D_ROW[i] - endRow), Math.abs(column + MazeGrid.D_COL[i] - endColumn));
+                scratch.push(key(nextCost + nextH, nextH), next);
+            }
+        }
+        return -1;
+    }
+
+    private static long key(int f, int h) {
+        return ((long) f << 32) | h;
+    }
+
+    @Override
+    public List<List<Node>> getAllPaths(MazeGrid grid, Node start, Node end) {
+        return List.of();
+    }
+}
@@ -0,0 +1,187 @@
+package org.algorithm.maze_solver.impl;
+
+import org.algorithm.components.MazeGrid;
+import org.algorithm.components.Node;
+import org.algorithm.maze_solver.MazeSolver;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+// Breadth first search from both ends at once, always growing the smaller frontier by one full level.
+// The backward search follows moves in reverse (a cell's predecessors are the cells that can move
+// into it), so walls and '#' cells are handled exactly as in DijkstraAlgorithm.
+// Once the searches meet, the rest of that level is still scanned so the shortest meeting is kept.
+public class BidirectionalBfsAlgorithm implements MazeSolver {
+
+    private static final class Scratch {
+        int[] forwardQueue = new int[0];
+        int[] backwardQueue = new int[0];
+        int[] forwardParent = new int[0];
+        int[] backwardParent = new int[0];
+        int[] forwardDist = new int[0];
+        int[] backwardDist = new int[0];
+        // Reached by the forward (backward) search when the mark equals forwardStamp (backwardStamp)
+        int[] forwardMark = new int[0];
+        int[] backwardMark = new int[0];
+        int stamp = 0;
+
+        void ensureCapacity(int size) {
+            if (forwardQueue.length < size) {
+                forwardQueue = new int[size];
+                backwardQueue = new int[size];
+                forwardParent = new int[size];
+                backwardParent = new int[size];
+                forwardDist = new int[size];
+                backwardDist = new int[size];
+                forwardMark = new int[size];
+                backwardMark = new int[size];
+                stamp = 0;
+            }
+        }
+
+        int nextStamp() {
+            if (++stamp == Integer.MAX_VALUE) {
+                Arrays.fill(forwardMark, 0);
+                Arrays.fill(backwardMark, 0);
+                stamp = 1;
+            }
+            return stamp;
+        }
+    }
+
+    private static final ThreadLocal<Scratch> SCRATCH = ThreadLocal.withInitial(Scratch::new);
+
+    @Override
+    public List<Node> getShortestPath(MazeGrid grid, Node start, Node end) {
+        Scratch scratch = SCRATCH.get();
+        int meeting = search(grid, start, end, scratch);
+        if (meeting < 0) {
+            return List.of();
+        }
+        List<Node> path = new ArrayList<>();
+        for (int cell = meeting; cell >= 0; cell = scratch.forwardParent[cell]) {
+            path.add(grid.node(cell));
+        }
+        Collections.reverse(path);
+        for (int cell = scratch.backwardParent[meeting]; cell >= 0; cell = scratch.backwardParent[cell]) {
+            path.add(grid.node(cell));
+        }
+        return path;
+    }
+
+    @Override
+    public int getShortestPathLength(MazeGrid grid, Node start, Node end) {
+        Scratch scratch = SCRATCH.get();
+        int meeting = search(grid, start, end, scratch);
+        return meeting < 0 ? 0 : scratch.forwardDist[meeting] + scratch.backwardDist[meeting] + 1;
+    }
+
+    // Returns the cell where the shortest path crosses from the forward to the backward tree, or -1
+    private int search(MazeGrid grid, Node start, Node end, Scratch scratch) {
+        scratch.ensureCapacity(grid.size());
+        int stamp = scratch.nextStamp();
+        int source = grid.index(start.getRow(), start.getColumn());
+        int target = grid.index(end.getRow(), end.getColumn());
+        if (source == target) {
+            scratch.forwardParent[source] = -1;
+            scratch.backwardParent[source] = -1;
+            scratch.forwardDist[source] = 0;
+            scratch.backwardDist[source] = 0;
+            return source;
+        }
+        if (grid.getValue(target) == '#') {
+            // The end can never be entered
+            return -1;
+        }
+
+        int[] forwardQueue = scratch.forwardQueue;
+        int[] backwardQueue = scratch.backwardQueue;
+        int forwardHead = 0;
+        int forwardTail = 0;
+        int backwardHead = 0;
+        int backwardTail = 0;
+        forwardQueue[forwardTail++] = source;
+        scratch.forwardMark[source] = stamp;
+        scratch.forwardParent[source] = -1;
+        scratch.forwardDist[source] = 0;
+        backwardQueue[backwardTail++] = target;
+        scratch.backwardMark[target] = stamp;
+        scratch.backwardParent[target] = -1;
+        scratch.backwardDist[target] = 0;
+
+        int nbColumn = grid.getNbColumn();
+        int best = Integer.MAX_VALUE;
+        int meeting = -1;
+        while (forwardHead < forwardTail && backwardHead < backwardTail) {
+            boolean forward = forwardTail - forwardHead <= backwardTail - backwardHead;
+            int levelEnd = forward ? forwardTail : backwardTail;
+            int head = forward ? forwardHead : backwardHead;
+            int tail = levelEnd;
+            int[] queue = forward ? forwardQueue : backwardQueue;
+            int[] mark = forward ? scratch.forwardMark : scratch.backwardMark;
+            int[] parent = forward ? scratch.forwardParent : scratch.backwardParent;
+            int[] dist = forward ? scratch.forwardDist : scratch.backwardDist;
+            int[] otherMark = forward ? scratch.backwardMark : scratch.forwardMark;
+            int[] otherDist = forward ? scratch.backwardDist : scratch.forwardDist;
+
+            while (head < levelEnd) {
+                int current = queue[head++];
+                int row = current / nbColumn;
+                int column = current - row * nbColumn;
+                for (int i = 0; i < 8; i++) {
+                    int next;
+                    if (forward) {
+                        if (!grid.canMove(row, column, i)) {
+                            continue;
+                        }
+                        next = current + MazeGrid.D_ROW[i] * nbColumn + MazeGrid.D_COL[i];
+                        if (grid.getValue(next) == '#') {
+                            continue;
+                        }
+                    } else {
+                        // next is a predecessor: it moves into current in the opposite direction
+                        int nextRow = row + MazeGrid.D_ROW[i];
+                        int nextColumn = column + MazeGrid.D_COL[i];
+                        if (!grid.contains(nextRow, nextColumn) || !grid.canMove(nextRow, nextColumn, (i + 4) % 8)) {
+                            continue;
+                        }
+                        next = current + MazeGrid.D_ROW[i] * nbColumn + MazeGrid.D_COL[i];
+                        // Only the start may be a '#' cell, every other cell of the path is entered
+                        if (next != source && grid.getValue(next) == '#') {
+                            continue;
+                        }
+                    }
+                    if (mark[next] == stamp) {
+                        continue;
+                    }
+                    mark[next] = stamp;
+                    parent[next] = current;
+                    dist[next] = dist[current] + 1;
+                    queue[tail++] = next;
+                    if (otherMark[next] == stamp && dist[next] + otherDist[next] < best) {
+                        best = dist[next] + otherDist[next];
+                        meeting = next;
+                    }
+                }
+            }
+            if (forward) {
+                forwardHead = head;
+                forwardTail = tail;
+            } else {
+                backwardHead = head;
+                backwardTail = tail;
+            }
+            if (meeting >= 0) {
+                return meeting;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public List<List<Node>> getAllPaths(MazeGrid grid, Node start, Node end) {
+        return List.of();
+    }
+}
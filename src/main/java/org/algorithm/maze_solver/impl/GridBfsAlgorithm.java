@@ -0,0 +1,117 @@
+package org.algorithm.maze_solver.impl;
+
+import org.algorithm.components.MazeGrid;
+import org.algorithm.components.Node;
+import org.algorithm.maze_solver.MazeSolver;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+// Shortest path for unit cost moves: a breadth first search over grid indexes.
+// Same moves as DijkstraAlgorithm (8 directions, walls respected, '#' cells skipped) and the
+// same path lengths, but the queue, parents and visited marks are int arrays kept per thread,
+// so a search allocates nothing besides the returned path.
+public class GridBfsAlgorithm implements MazeSolver {
+
+    // Scratch buffers reused by every search on the same thread
+    private static final class Scratch {
+        int[] queue = new int[0];
+        int[] parent = new int[0];
+        // A cell is visited in the current search when its mark equals the search's stamp
+        int[] mark = new int[0];
+        int stamp = 0;
+
+        void ensureCapacity(int size) {
+            if (queue.length < size) {
+                queue = new int[size];
+                parent = new int[size];
+                mark = new int[size];
+                stamp = 0;
+            }
+        }
+
+        int nextStamp() {
+            if (++stamp == Integer.MAX_VALUE) {
+                Arrays.fill(mark, 0);
+                stamp = 1;
+            }
+            return stamp;
+        }
+    }
+
+    private static final ThreadLocal<Scratch> SCRATCH = ThreadLocal.withInitial(Scratch::new);
+
+    @Override
+    public List<Node> getShortestPath(MazeGrid grid, Node start, Node end) {
+        Scratch scratch = SCRATCH.get();
+        int target = search(grid, start, end, scratch);
+        if (target < 0) {
+            return List.of();
+        }
+        List<Node> path = new ArrayList<>();
+        for (int cell = target; cell >= 0; cell = scratch.parent[cell]) {
+            path.add(grid.node(cell));
+        }
+        Collections.reverse(path);
+        return path;
+    }
+
+    @Override
+    public int getShortestPathLength(MazeGrid grid, Node start, Node end) {
+        Scratch scratch = SCRATCH.get();
+        int target = search(grid, start, end, scratch);
+        int length = 0;
+        for (int cell = target; cell >= 0; cell = scratch.parent[cell]) {
+            length++;
+        }
+        return length;
+    }
+
+    // Runs the search and returns the end index, or -1 when it is unreachable. Parents are left in scratch.
+    private int search(MazeGrid grid, Node start, Node end, Scratch scratch) {
+        scratch.ensureCapacity(grid.size());
+        int[] queue = scratch.queue;
+        int[] parent = scratch.parent;
+        int[] mark = scratch.mark;
+        int stamp = scratch.nextStamp();
+
+        int source = grid.index(start.getRow(), start.getColumn());
+        int target = grid.index(end.getRow(), end.getColumn());
+        int nbColumn = grid.getNbColumn();
+        // Each cell is queued at most once, so the queue never wraps
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = source;
+        parent[source] = -1;
+        mark[source] = stamp;
+
+        while (head < tail) {
+            int current = queue[head++];
+            if (current == target) {
+                return current;
+            }
+            int row = current / nbColumn;
+            int column = current - row * nbColumn;
+            for (int i = 0; i < 8; i++) {
+                if (!grid.canMove(row, column, i)) {
+                    continue;
+                }
+                int next = current + MazeGrid.D_ROW[i] * nbColumn + MazeGrid.D_COL[i];
+                if (mark[next] == stamp || grid.getValue(next) == '#') {
+                    continue;
+                }
+                mark[next] = stamp;
+                parent[next] = current;
+                queue[tail++] = next;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public List<List<Node>> getAllPaths(MazeGrid grid, Node start, Node end) {
+        return List.of();
+    }
+}
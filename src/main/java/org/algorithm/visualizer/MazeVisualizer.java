@@ -25,12 +25,9 @@ import javafx.util.Duration;
 import org.algorithm.components.Node;
 
 import org.algorithm.maze.impl.prims_algorithm.PrimsAlgorithm;
-import org.algorithm.maze_solver.MazeSolver;
-import org.algorithm.maze_solver.impl.BfsAlgorithm;
+import org.algorithm.maze_solver.PathScorer;
 
 import javax.swing.*;
-import java.util.HashSet;
-import java.util.Set;
 import java.util.Stack;
 
 
@@ -63,7 +60,6 @@ public class MazeVisualizer extends Application {
     private AudioClip bonus;
     private boolean mouthOpen = true;
     private Stack<Node> currentPath;
-    private MazeSolver solver;
     private static final Color BACKGROUND_COLOR = Color.web("#000000");
     private static final Color WALL_COLOR = Color.web("#2121DE");
     private static final Color PLAYER_COLOR = Color.web("#FFFF00");
@@ -71,10 +67,10 @@ public class MazeVisualizer extends Application {
     private static final Color TEXT_COLOR = Color.web("#FFFFFF");
     private static final int PLAYER_SIZE = CELL_SIZE * 2 / 5;
     private  PrimsAlgorithm mazeGenerator;
-    // In MazeVisualizer
-    public static final StringProperty themeProperty = new SimpleStringProperty("");
+    // Theme of the current maze, each maze picks its own
+    private final StringProperty themeProperty = new SimpleStringProperty("");
     private boolean gameRunning = true;
-    Set<String> foundWords;
+    PathScorer pathScorer;
     @Override
     public void init() throws Exception {
         // Initialize maze generator
@@ -82,13 +78,14 @@ public class MazeVisualizer extends Application {
         mazeGenerator.setStartAndEnd();
         mazeGenerator.generateMaze();
         mazeGenerator.populateThisMaze();
-        solver=new BfsAlgorithm();
+        themeProperty.set(mazeGenerator.getTheme());
         maze = mazeGenerator.getMaze();
         startNode = mazeGenerator.getStart();
         endNode = mazeGenerator.getEnd();
-        foundWords = new HashSet<>();
         currentPath = new Stack<>();
         currentPath.push(maze[startNode.getRow()][startNode.getColumn()]);
+        pathScorer = new PathScorer(mazeGenerator.getWordAutomaton());
+        pathScorer.push(currentPath.peek().getValue());
         // Load audio resources
         wakawaka = new AudioClip(getClass().getResource("/sounds/wakawaka.wav").toExternalForm());
         gameStart = new AudioClip(getClass().getResource("/sounds/game_start.wav").toExternalForm());
@@ -322,12 +319,15 @@ public class MazeVisualizer extends Application {
             updatePlayerPosition(newRow, newCol);
             Node node = maze[newRow][newCol];
             Node previousNode = currentPath.peek();
+            int gained = 0;
             if (previousNode.getRow() == node.getRow() && previousNode.getColumn() == node.getColumn()) {
                 currentPath.pop();
+                pathScorer.pop();
             } else {
                 currentPath.push(node);
+                gained = pathScorer.push(node.getValue());
             }
-            int score = solver.updateScore(currentPath.stream().toList(), mazeGenerator, foundWords, currentScore);
+            int score = currentScore + gained;
             if(score!=currentScore) {
                 currentScore = score;
                 scoreLabel.setText("Score: " + score);
@@ -368,39 +368,7 @@ public class MazeVisualizer extends Application {
         int rowDiff = newRow - oldRow;
         int colDiff = newCol - oldCol;
 
-        return possibleMove(rowDiff, colDiff,
-                maze[oldRow][oldCol].getBorders(),
-                maze[newRow][newCol].getBorders());
-    }
-
-    private boolean possibleMove(int dRow, int dCol, boolean[] cBorders, boolean[] nBorders) {
-        return switch (dRow) {
-            case -1 -> {
-                yield switch (dCol) {
-                    case -1 -> (!cBorders[0] && !cBorders[3]) && (!nBorders[1] && !nBorders[2]);
-                    case 0 -> !cBorders[0] && !nBorders[2];
-                    case 1 -> (!cBorders[0] && !cBorders[1]) && (!nBorders[2] && !nBorders[3]);
-                    default -> false;
-                };
-            }
-            case 1 -> {
-                yield switch (dCol) {
-                    case -1 -> (!cBorders[2] && !cBorders[3]) && (!nBorders[1] && !nBorders[0]);
-                    case 0 -> !cBorders[2] && !nBorders[0];
-                    case 1 -> (!cBorders[1] && !cBorders[2]) && (!nBorders[0] && !nBorders[3]);
-                    default -> false;
-                };
-            }
-            case 0 -> {
-                yield switch (dCol) {
-                    case -1 -> !cBorders[3] && !nBorders[1];
-                    case 0 -> true;
-                    case 1 -> !cBorders[1] && !nBorders[3];
-                    default -> false;
-                };
-            }
-            default -> false;
-        };
+        return mazeGenerator.getGrid().canMove(oldRow, oldCol, rowDiff, colDiff);
     }
 
     private void regenerateMaze() {
@@ -415,13 +383,14 @@ public class MazeVisualizer extends Application {
         mazeGenerator.setStartAndEnd();
         mazeGenerator.generateMaze();
         mazeGenerator.populateThisMaze();
-        solver=new BfsAlgorithm();
+        themeProperty.set(mazeGenerator.getTheme());
         maze = mazeGenerator.getMaze();
         startNode = mazeGenerator.getStart();
         endNode = mazeGenerator.getEnd();
-        foundWords = new HashSet<>();
         currentPath = new Stack<>();
         currentPath.push(maze[startNode.getRow()][startNode.getColumn()]);
+        pathScorer = new PathScorer(mazeGenerator.getWordAutomaton());
+        pathScorer.push(currentPath.peek().getValue());
         // Reset score
         currentScore = 0;
         scoreLabel.setText("Score: 0");